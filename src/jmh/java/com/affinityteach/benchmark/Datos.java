@@ -0,0 +1,30 @@
+package com.affinityteach.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.GeneradorDatosSinteticos;
+
+// Datos sinteticos reproducibles para los benchmarks (misma semilla que el
+// perfil memory)
+final class Datos {
+	private static final long SEMILLA = 42;
+
+	private Datos() {
+	}
+
+	// Docentes con sus agregados y sin reseñas embebidas, como los guarda el cache
+	static List<DocenteEntity> docentes(int cantidad) {
+		List<DocenteEntity> docentes = new ArrayList<>(cantidad);
+		new GeneradorDatosSinteticos(SEMILLA).generar(cantidad, 0, docentes::add);
+		return docentes;
+	}
+
+	// Un docente con todas las reseñas embebidas (formato viejo del documento)
+	static DocenteEntity docenteConResenas(int cantResenas) {
+		List<DocenteEntity> docentes = new ArrayList<>(1);
+		new GeneradorDatosSinteticos(SEMILLA).generar(1, cantResenas, docentes::add);
+		return docentes.get(0);
+	}
+}
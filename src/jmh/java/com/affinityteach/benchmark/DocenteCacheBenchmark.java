@@ -0,0 +1,88 @@
+package com.affinityteach.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.affinityteach.cache.DocenteCache;
+import com.affinityteach.model.entity.DocenteEntity;
+
+// Lecturas del cache de docentes por tamaño, solas y con contencion
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class DocenteCacheBenchmark {
+
+	@Param({ "1000", "10000", "100000" })
+	int tamanio;
+
+	private DocenteCache cache;
+	private List<DocenteEntity> docentes;
+	private String[] ids;
+
+	@State(Scope.Thread)
+	public static class Hilo {
+		final SplittableRandom random = new SplittableRandom();
+	}
+
+	@Setup
+	public void preparar() {
+		docentes = Datos.docentes(tamanio);
+		ids = docentes.stream().map(DocenteEntity::getId).toArray(String[]::new);
+		// Sin repositorio: el contenido se carga como lo haria el listener
+		cache = new DocenteCache(null);
+		cache.reemplazarTodo(docentes);
+	}
+
+	@Benchmark
+	public Optional<DocenteEntity> getDocenteById(Hilo hilo) {
+		return cache.getDocenteById(ids[hilo.random.nextInt(ids.length)]);
+	}
+
+	@Benchmark
+	public List<DocenteEntity> getDocentes() {
+		return cache.getDocentes();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Optional<DocenteEntity> getDocenteByIdCuatroHilos(Hilo hilo) {
+		return cache.getDocenteById(ids[hilo.random.nextInt(ids.length)]);
+	}
+
+	// Tres lectores mientras un escritor publica cambios: cada escritura arma
+	// un snapshot nuevo (O(n)) y los lectores no deberian notarlo
+	@Benchmark
+	@Group("contendido")
+	@GroupThreads(3)
+	public Optional<DocenteEntity> lecturaConEscritor(Hilo hilo) {
+		return cache.getDocenteById(ids[hilo.random.nextInt(ids.length)]);
+	}
+
+	@Benchmark
+	@Group("contendido")
+	@GroupThreads(1)
+	public void escrituraConLectores(Hilo hilo) {
+		DocenteEntity docente = docentes.get(hilo.random.nextInt(docentes.size()));
+		cache.actualizarDocenteIndividualConDatos(docente.getId(), docente);
+	}
+}
@@ -0,0 +1,78 @@
+package com.affinityteach.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.model.entity.ResenaEntity;
+import com.google.cloud.firestore.encoding.CustomClassMapper;
+
+// Mapeo de Firestore sin red: DocumentSnapshot.toObject termina en
+// CustomClassMapper.convertToCustomClass sobre el Map de getData(), y set()
+// en convertToPlainJavaTypes. Queda afuera solo la decodificacion del protobuf.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class MapeoFirestoreBenchmark {
+
+	// Reseñas embebidas en el documento del docente (0 = formato actual)
+	@Param({ "0", "100", "1000" })
+	int cantResenas;
+
+	private DocenteEntity docente;
+	private Map<String, Object> datosDocente;
+	private List<Map<String, Object>> datosResenas;
+
+	@Setup
+	public void preparar() {
+		docente = cantResenas == 0 ? Datos.docentes(1).get(0) : Datos.docenteConResenas(cantResenas);
+		datosDocente = CustomClassMapper.convertToPlainJavaTypes(aMapa(docente));
+
+		// Una pagina de reseñas de la subcoleccion (50, el limite por defecto)
+		datosResenas = new ArrayList<>();
+		for (ResenaEntity resena : Datos.docenteConResenas(50).getResenas()) {
+			datosResenas.add(CustomClassMapper.convertToPlainJavaTypes(aMapa(resena)));
+		}
+	}
+
+	@Benchmark
+	public DocenteEntity docenteToObject() {
+		return CustomClassMapper.convertToCustomClass(datosDocente, DocenteEntity.class, null);
+	}
+
+	@Benchmark
+	public List<ResenaEntity> paginaResenasToObject() {
+		List<ResenaEntity> resenas = new ArrayList<>(datosResenas.size());
+		for (Map<String, Object> datos : datosResenas) {
+			resenas.add(CustomClassMapper.convertToCustomClass(datos, ResenaEntity.class, null));
+		}
+		return resenas;
+	}
+
+	@Benchmark
+	public Object docenteAFirestore() {
+		return CustomClassMapper.serialize(docente);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> aMapa(Object entidad) {
+		return (Map<String, Object>) CustomClassMapper.serialize(entidad);
+	}
+}
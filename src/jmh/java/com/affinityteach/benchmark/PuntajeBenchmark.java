@@ -0,0 +1,55 @@
+package com.affinityteach.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.model.entity.ResenaEntity;
+
+// Puntaje promedio: con los agregados del documento (lo que hace
+// calcularPuntajePromedio) contra recorrer las reseñas (como se hacia antes)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class PuntajeBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	int cantResenas;
+
+	private DocenteEntity docente;
+
+	@Setup
+	public void preparar() {
+		docente = Datos.docenteConResenas(cantResenas);
+	}
+
+	@Benchmark
+	public double conAgregados() {
+		long cant = docente.getCantResenas() != null ? docente.getCantResenas() : 0;
+		long suma = docente.getSumaEstrellas() != null ? docente.getSumaEstrellas() : 0;
+		return DocenteEntity.calcularPuntaje(suma, cant);
+	}
+
+	@Benchmark
+	public double recorriendoResenas() {
+		double suma = 0;
+		for (ResenaEntity resena : docente.getResenas()) {
+			suma += resena.getEstrellas();
+		}
+		return Math.round(suma / docente.getResenas().size() * 10.0) / 10.0;
+	}
+}
@@ -0,0 +1,56 @@
+package com.affinityteach.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.affinityteach.model.dto.DocenteResumenDTO;
+import com.affinityteach.model.entity.DocenteEntity;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+// Jackson sobre un docente con sus reseñas embebidas (lo que costaba cada
+// respuesta antes de la subcoleccion) y sobre su resumen, que no crece
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class SerializacionJsonBenchmark {
+
+	@Param({ "10", "100", "1000", "10000" })
+	int cantResenas;
+
+	private ObjectMapper objectMapper;
+	private DocenteEntity docente;
+	private DocenteResumenDTO resumen;
+
+	@Setup
+	public void preparar() {
+		objectMapper = JsonMapper.builder().build();
+		docente = Datos.docenteConResenas(cantResenas);
+		resumen = DocenteResumenDTO.desde(docente);
+	}
+
+	@Benchmark
+	public byte[] docenteCompleto() {
+		return objectMapper.writeValueAsBytes(docente);
+	}
+
+	@Benchmark
+	public byte[] docenteResumen() {
+		return objectMapper.writeValueAsBytes(resumen);
+	}
+}
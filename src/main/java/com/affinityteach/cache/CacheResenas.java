@@ -0,0 +1,91 @@
+package com.affinityteach.cache;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.affinityteach.repository.CursorResena;
+import com.affinityteach.repository.DocenteRepository;
+import com.affinityteach.repository.PaginaResenas;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+// Segundo nivel del cache: paginas de reseñas, cargadas a pedido. El primer
+// nivel (DocenteCache) tiene a todos los docentes sin sus reseñas; aca solo
+// queda lo que se esta leyendo, acotado por tamaño estimado y con desalojo
+// W-TinyLFU (Caffeine).
+//
+// La clave lleva la version del docente, que cambia con cada reseña y con cada
+// flush de likes: una pagina vieja no se vuelve a pedir y sale por desalojo.
+@Component
+public class CacheResenas {
+	private final DocenteRepository docenteRepository;
+	private final DocenteCache docenteCache;
+	private final long maxBytes;
+	private final AsyncCache<ClavePagina, PaginaResenas> paginas;
+
+	public CacheResenas(DocenteRepository docenteRepository, DocenteCache docenteCache,
+			@Value("${affinityteach.cache.resenas.max-bytes:67108864}") long maxBytes) {
+		this.docenteRepository = docenteRepository;
+		this.docenteCache = docenteCache;
+		this.maxBytes = maxBytes;
+		this.paginas = Caffeine.newBuilder()
+				.maximumWeight(maxBytes)
+				.weigher((ClavePagina clave, PaginaResenas pagina) -> (int) Math.min(Integer.MAX_VALUE, pesar(pagina)))
+				.recordStats()
+				.buildAsync();
+	}
+
+	// Pedidos simultaneos de la misma pagina comparten la lectura; si falla no
+	// queda guardada. Un docente que no esta en DocenteCache no tiene version y
+	// se lee directo.
+	public CompletableFuture<PaginaResenas> obtener(String docenteId, CursorResena desde, int limite) {
+		Optional<VersionCache> version = docenteCache.getVersion(docenteId);
+		if (version.isEmpty()) {
+			return docenteRepository.findResenasAsync(docenteId, desde, limite);
+		}
+		return paginas.get(new ClavePagina(docenteId, version.get(), desde, limite),
+				(clave, ejecutor) -> docenteRepository.findResenasAsync(docenteId, desde, limite));
+	}
+
+	public long getBytesEstimados() {
+		return paginas.synchronous().policy().eviction()
+				.map(desalojo -> desalojo.weightedSize().orElse(0L))
+				.orElse(0L);
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public long getCantidadPaginas() {
+		return paginas.synchronous().estimatedSize();
+	}
+
+	AsyncCache<?, ?> getCache() {
+		return paginas;
+	}
+
+	public CacheStats getEstadisticas() {
+		return paginas.synchronous().stats();
+	}
+
+	public void invalidarTodo() {
+		paginas.synchronous().invalidateAll();
+	}
+
+	// El desalojo corre en segundo plano; esto lo aplica ya (para medir)
+	public void limpiar() {
+		paginas.synchronous().cleanUp();
+	}
+
+	private static long pesar(PaginaResenas pagina) {
+		return 64 + EstimacionMemoria.resenas(pagina.resenas()) + EstimacionMemoria.texto(pagina.siguienteCursor());
+	}
+
+	private record ClavePagina(String docenteId, VersionCache version, CursorResena desde, int limite) {
+	}
+}
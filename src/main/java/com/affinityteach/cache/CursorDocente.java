@@ -0,0 +1,34 @@
+package com.affinityteach.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.affinityteach.model.entity.DocenteEntity;
+
+// Posicion de un docente dentro del orden (nombre, id) del cache. Viaja al
+// cliente como un string opaco en base64url.
+public record CursorDocente(String nombre, String id) {
+
+	private static final char SEPARADOR = '\u0000';
+
+	public static CursorDocente de(DocenteEntity docente) {
+		return new CursorDocente(docente.getNombre(), docente.getId());
+	}
+
+	// id, separador y el nombre precedido de '+' (sin nada si es null)
+	public String codificar() {
+		String crudo = id + SEPARADOR + (nombre != null ? "+" + nombre : "");
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(crudo.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static CursorDocente decodificar(String cursor) {
+		try {
+			String crudo = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separador = crudo.indexOf(SEPARADOR);
+			String resto = crudo.substring(separador + 1);
+			return new CursorDocente(resto.isEmpty() ? null : resto.substring(1), crudo.substring(0, separador));
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Cursor invalido: " + cursor);
+		}
+	}
+}
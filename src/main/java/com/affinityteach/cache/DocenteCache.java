@@ -1,32 +1,78 @@
 package com.affinityteach.cache;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import com.affinityteach.model.entity.DocenteEntity;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.CollectionReference;
-import com.google.cloud.firestore.DocumentReference;
-import com.google.cloud.firestore.DocumentSnapshot;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QuerySnapshot;
+import com.affinityteach.repository.CambioDocente;
+import com.affinityteach.repository.DocenteRepository;
 
 import jakarta.annotation.PostConstruct;
 
 @Component
 public class DocenteCache {
-	private List<DocenteEntity> cache = new ArrayList<>();
-	private long lastUpdate = 0;
-	private final Firestore firestore;
+	private static final Logger log = LoggerFactory.getLogger(DocenteCache.class);
+	// Orden por nombre y, para empates, por id (orden total para busqueda binaria)
+	private static final Comparator<DocenteEntity> POR_NOMBRE = Comparator
+			.comparing(DocenteEntity::getNombre, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+			.thenComparing(DocenteEntity::getId, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+
+	// Version publicada del cache. Los lectores la leen sin lock; los escritores
+	// construyen una nueva y la reemplazan entera.
+	private volatile Snapshot snapshot = Snapshot.VACIO;
+	// Serializa a los escritores. Nunca se toma mientras se espera a Firestore:
+	// la recarga lee sin lock y solo publica con el lock tomado.
+	private final ReentrantLock escritura = new ReentrantLock();
+	// Ultimo numero de version entregado (solo bajo el lock de escritura)
+	private final long epocaVersion = System.currentTimeMillis();
+	private long secuenciaVersion = 0;
+	private volatile long lastUpdate = 0;
+	// Despues de una recarga fallida no se reintenta antes de este instante
+	private volatile long proximoReintento = 0;
+	// La recarga completa en curso (una sola a la vez), o null
+	private final AtomicReference<CompletableFuture<Void>> recargaEnCurso = new AtomicReference<>();
+	// Ids publicados mientras corre una recarga; null si no hay ninguna (solo bajo el lock)
+	private Set<String> tocadosDuranteRecarga;
+	// Lecturas puntuales a Firestore en curso: los pedidos del mismo id comparten una
+	private final Map<String, CompletableFuture<Optional<DocenteEntity>>> cargasEnCurso = new ConcurrentHashMap<>();
+
+	// Contadores para las metricas (ver MetricasCache)
+	private final LongAdder aciertos = new LongAdder();
+	private final LongAdder fallos = new LongAdder();
+	private final LongAdder recargas = new LongAdder();
+	private final LongAdder recargasFallidas = new LongAdder();
+	private final LongAdder nanosRecargas = new LongAdder();
+	private volatile int documentosUltimaRecarga = 0;
+	// true mientras un listener de Firestore mantiene el cache al dia (sin TTL)
+	private volatile boolean sincronizadoEnVivo = false;
+	private final DocenteRepository docenteRepository;
+	private final List<OyenteDocenteCache> oyentes = new CopyOnWriteArrayList<>();
 	private static final long CACHE_TTL = 30 * 60 * 1000; // 30 minutos
+	private static final long REINTENTO_RECARGA = 30 * 1000;
 
-	public DocenteCache(Firestore firestore) {
-		this.firestore = firestore;
+	public DocenteCache(DocenteRepository docenteRepository) {
+		this.docenteRepository = docenteRepository;
 	}
 
 	@PostConstruct
@@ -34,103 +80,445 @@ public class DocenteCache {
 		refreshCache();
 	}
 
-	public synchronized List<DocenteEntity> getDocentes() {
-		if (System.currentTimeMillis() - lastUpdate > CACHE_TTL) {
-			refreshCache();
+	// Vencido el TTL se sigue sirviendo la foto vieja mientras la nueva se carga
+	// en segundo plano; solo se espera si todavia no hubo ninguna carga
+	public List<DocenteEntity> getDocentes() {
+		if (estaVencido()) {
+			CompletableFuture<Void> recarga = recargar();
+			if (lastUpdate == 0) {
+				recarga.join();
+			}
 		}
-		return new ArrayList<>(cache);
+		return snapshot.ordenados();
 	}
 
-	public synchronized Optional<DocenteEntity> getDocenteById(String id) {
-		// Primero busco en cache
-		return cache.stream().filter(d -> id.equals(d.getId())).findFirst();
+	// Pagina del listado ordenado: busqueda binaria del cursor y sublista, sin
+	// recorrer ni copiar el resto
+	public PaginaDocentes getPagina(CursorDocente desde, int limite) {
+		List<DocenteEntity> ordenados = getDocentes();
+		int inicio = 0;
+		if (desde != null) {
+			DocenteEntity sonda = new DocenteEntity();
+			sonda.setId(desde.id());
+			sonda.setNombre(desde.nombre());
+			int pos = Collections.binarySearch(ordenados, sonda, POR_NOMBRE);
+			inicio = pos >= 0 ? pos + 1 : -pos - 1;
+		}
+		int fin = Math.min(inicio + limite, ordenados.size());
+		List<DocenteEntity> pagina = ordenados.subList(inicio, fin);
+		String siguiente = fin < ordenados.size() ? CursorDocente.de(pagina.get(pagina.size() - 1)).codificar() : null;
+		return new PaginaDocentes(pagina, siguiente);
 	}
 
-	public synchronized void refreshCache() {
-		System.out.println("Actualizando cache de docentes desde Firestore...");
+	public Optional<DocenteEntity> getDocenteById(String id) {
+		return Optional.ofNullable(snapshot.porId().get(id));
+	}
 
+	// Como getDocenteById, pero si no esta en cache lo lee de Firestore. Los
+	// pedidos simultaneos del mismo id esperan la misma lectura. No lo agrega
+	// al cache: si existe, el listener o la proxima recarga lo traen.
+	public CompletableFuture<Optional<DocenteEntity>> buscarDocente(String id) {
+		DocenteEntity enCache = snapshot.porId().get(id);
+		if (enCache != null) {
+			aciertos.increment();
+			return CompletableFuture.completedFuture(Optional.of(enCache));
+		}
+		fallos.increment();
+		CompletableFuture<Optional<DocenteEntity>> nueva = new CompletableFuture<>();
+		CompletableFuture<Optional<DocenteEntity>> enCurso = cargasEnCurso.putIfAbsent(id, nueva);
+		if (enCurso != null) {
+			return enCurso;
+		}
+		docenteRepository.findByIdAsync(id).whenComplete((docente, error) -> {
+			cargasEnCurso.remove(id, nueva);
+			if (error != null) {
+				nueva.completeExceptionally(error);
+			} else {
+				nueva.complete(docente);
+			}
+		});
+		return nueva;
+	}
+
+	// Cambia con cualquier alta, baja o modificacion
+	public VersionCache getVersion() {
+		return snapshot.version();
+	}
+
+	// Cambia cuando cambia ese docente (o sus reseñas); vacio si no esta en cache
+	public Optional<VersionCache> getVersion(String docenteId) {
+		return Optional.ofNullable(snapshot.versiones().get(docenteId));
+	}
+
+	// Recarga completa; si ya hay una en curso espera esa
+	public void refreshCache() {
+		recargar().join();
+	}
+
+	public void actualizarDocenteIndividual(String docenteId) {
 		try {
-			CollectionReference docentesCollection = firestore.collection("docentes");
-			ApiFuture<QuerySnapshot> future = docentesCollection.get();
-			QuerySnapshot snapshot = future.get();
-
-			List<DocenteEntity> nuevosDocentes = new ArrayList<>();
-			for (DocumentSnapshot doc : snapshot.getDocuments()) {
-				DocenteEntity docente = doc.toObject(DocenteEntity.class);
-				if (docente != null) {
-					docente.setId(doc.getId());
-					nuevosDocentes.add(docente);
-				}
+			docenteRepository.findById(docenteId)
+					.ifPresent(docenteActualizado -> actualizarDocenteIndividualConDatos(docenteId, docenteActualizado));
+		} catch (Exception e) {
+			log.error("Error actualizando docente individual {}", docenteId, e);
+		}
+	}
+
+	public void actualizarDocenteIndividualConDatos(String docenteId, DocenteEntity docenteActualizado) {
+		escritura.lock();
+		try {
+			publicarDocente(docenteId, docenteActualizado);
+		} finally {
+			escritura.unlock();
+		}
+	}
+
+	// Aplica un cambio sobre la version actual del docente. Corre bajo el lock
+	// de escritura, asi dos escritores concurrentes no se pisan los contadores.
+	public Optional<DocenteEntity> actualizarDocente(String docenteId, UnaryOperator<DocenteEntity> cambio) {
+		escritura.lock();
+		try {
+			DocenteEntity actual = snapshot.porId().get(docenteId);
+			if (actual == null) {
+				return Optional.empty();
 			}
+			DocenteEntity nuevo = cambio.apply(new DocenteEntity(actual));
+			publicarDocente(docenteId, nuevo);
+			return Optional.of(nuevo);
+		} finally {
+			escritura.unlock();
+		}
+	}
 
-			// Ordenar por nombre
-			nuevosDocentes.sort(Comparator.comparing(DocenteEntity::getNombre));
+	public void eliminarDocenteIndividual(String docenteId) {
+		escritura.lock();
+		try {
+			publicarCambios(List.of(CambioDocente.eliminado(docenteId)));
+		} finally {
+			escritura.unlock();
+		}
+	}
 
-			cache = nuevosDocentes;
-			lastUpdate = System.currentTimeMillis();
+	// Nueva version para docentes cuyo documento no cambio pero si algo que
+	// cuelga de el (likes de sus reseñas); no cambia la version del listado
+	public void marcarModificados(Collection<String> docenteIds) {
+		escritura.lock();
+		try {
+			this.snapshot = snapshot.conVersion(docenteIds, siguienteVersion());
+		} finally {
+			escritura.unlock();
+		}
+	}
 
-			System.out.println("Cache actualizado: " + cache.size() + " docentes");
+	// Reemplaza el contenido completo (primera foto del listener)
+	public void reemplazarTodo(List<DocenteEntity> docentes) {
+		escritura.lock();
+		try {
+			publicarTodo(docentes);
+			lastUpdate = System.currentTimeMillis();
+		} finally {
+			escritura.unlock();
+		}
+	}
 
-		} catch (InterruptedException | ExecutionException e) {
-			System.err.println("Error actualizando cache: " + e.getMessage());
-			Thread.currentThread().interrupt();
+	// Aplica solo los documentos agregados, modificados o eliminados
+	public void aplicarCambios(List<CambioDocente> cambios) {
+		if (cambios.isEmpty()) {
+			return;
+		}
+		escritura.lock();
+		try {
+			publicarCambios(cambios);
+			lastUpdate = System.currentTimeMillis();
+		} finally {
+			escritura.unlock();
 		}
 	}
 
-	public synchronized void actualizarDocenteIndividual(String docenteId) {
+	// El oyente recibe enseguida el contenido actual y despues cada cambio
+	public void registrarOyente(OyenteDocenteCache oyente) {
+		escritura.lock();
 		try {
-			DocumentReference docenteRef = firestore.collection("docentes").document(docenteId);
-			DocumentSnapshot doc = docenteRef.get().get();
-
-			if (doc.exists()) {
-				DocenteEntity docenteActualizado = doc.toObject(DocenteEntity.class);
-				if (docenteActualizado != null) {
-					docenteActualizado.setId(doc.getId());
-
-					// Encontrar y reemplazar en cache
-					boolean encontrado = false;
-					for (int i = 0; i < cache.size(); i++) {
-						if (docenteId.equals(cache.get(i).getId())) {
-							cache.set(i, docenteActualizado);
-							encontrado = true;
-							break;
-						}
+			oyentes.add(oyente);
+			oyente.alReemplazar(snapshot.ordenados());
+		} finally {
+			escritura.unlock();
+		}
+	}
+
+	public void setSincronizadoEnVivo(boolean sincronizadoEnVivo) {
+		this.sincronizadoEnVivo = sincronizadoEnVivo;
+	}
+
+	public boolean isSincronizadoEnVivo() {
+		return sincronizadoEnVivo;
+	}
+
+	public int getCacheSize() {
+		return snapshot.porId().size();
+	}
+
+	public long getLastUpdate() {
+		return lastUpdate;
+	}
+
+	public long getTtlMs() {
+		return CACHE_TTL;
+	}
+
+	// Como se mantiene al dia: LISTENER (cambios en vivo), VIGENTE o VENCIDO
+	// (recarga por TTL) o VACIO si todavia no cargo nunca
+	public String getEstado() {
+		if (sincronizadoEnVivo) {
+			return "LISTENER";
+		}
+		if (lastUpdate == 0) {
+			return "VACIO";
+		}
+		return System.currentTimeMillis() - lastUpdate > CACHE_TTL ? "VENCIDO" : "VIGENTE";
+	}
+
+	public long getAciertos() {
+		return aciertos.sum();
+	}
+
+	public long getFallos() {
+		return fallos.sum();
+	}
+
+	public long getRecargas() {
+		return recargas.sum();
+	}
+
+	public long getRecargasFallidas() {
+		return recargasFallidas.sum();
+	}
+
+	public long getNanosRecargas() {
+		return nanosRecargas.sum();
+	}
+
+	public int getDocumentosUltimaRecarga() {
+		return documentosUltimaRecarga;
+	}
+
+	// Tamaño aproximado de lo que tiene el cache. Se calcula al publicar cada
+	// snapshot (solo lo que cambia), asi leerlo en cada scrape es O(1).
+	public long getBytesEstimados() {
+		return snapshot.bytesEstimados();
+	}
+
+	private boolean estaVencido() {
+		long ahora = System.currentTimeMillis();
+		return !sincronizadoEnVivo && ahora - lastUpdate > CACHE_TTL && ahora >= proximoReintento;
+	}
+
+	// Single-flight: los que ven el TTL vencido a la vez comparten una recarga
+	private CompletableFuture<Void> recargar() {
+		while (true) {
+			CompletableFuture<Void> enCurso = recargaEnCurso.get();
+			if (enCurso != null) {
+				return enCurso;
+			}
+			CompletableFuture<Void> nueva = new CompletableFuture<>();
+			if (recargaEnCurso.compareAndSet(null, nueva)) {
+				DocenteRepository.EJECUTOR_BLOQUEANTE.execute(() -> {
+					try {
+						cargarTodo();
+					} finally {
+						recargaEnCurso.set(null);
+						nueva.complete(null);
 					}
+				});
+				return nueva;
+			}
+		}
+	}
 
-					if (!encontrado) {
-						cache.add(docenteActualizado);
-						cache.sort(Comparator.comparing(DocenteEntity::getNombre));
+	private void cargarTodo() {
+		escritura.lock();
+		try {
+			tocadosDuranteRecarga = new HashSet<>();
+		} finally {
+			escritura.unlock();
+		}
+		long inicio = System.nanoTime();
+		try {
+			log.info("Actualizando cache de docentes desde Firestore...");
+			List<DocenteEntity> nuevosDocentes = docenteRepository.findAll();
+			documentosUltimaRecarga = nuevosDocentes.size();
+
+			escritura.lock();
+			try {
+				// Lo publicado durante la lectura ya esta confirmado en Firestore y
+				// puede no haber salido en ella: de esos ids vale lo del cache
+				Map<String, DocenteEntity> combinados = new LinkedHashMap<>();
+				for (DocenteEntity docente : nuevosDocentes) {
+					combinados.put(docente.getId(), docente);
+				}
+				for (String id : tocadosDuranteRecarga) {
+					DocenteEntity vigente = snapshot.porId().get(id);
+					if (vigente != null) {
+						combinados.put(id, vigente);
+					} else {
+						combinados.remove(id);
 					}
 				}
+				publicarTodo(new ArrayList<>(combinados.values()));
+				lastUpdate = System.currentTimeMillis();
+			} finally {
+				escritura.unlock();
 			}
-		} catch (Exception e) {
-			System.err.println("Error actualizando docente individual: " + e.getMessage());
-		}
-	}
-	
-	public synchronized void actualizarDocenteIndividualConDatos(String docenteId, DocenteEntity docenteActualizado) {
-	    
-	    boolean encontrado = false;
-	    for (int i = 0; i < cache.size(); i++) {
-	        if (docenteId.equals(cache.get(i).getId())) {
-	            cache.set(i, docenteActualizado);
-	            encontrado = true;
-	            break;
-	        }
-	    }
-	    
-	    if (!encontrado) {
-	        cache.add(docenteActualizado);
-	        cache.sort(Comparator.comparing(DocenteEntity::getNombre));
-	    }
-	    
+			log.info("Cache actualizado: {} docentes en {} ms", getCacheSize(), (System.nanoTime() - inicio) / 1_000_000);
+
+		} catch (RuntimeException e) {
+			recargasFallidas.increment();
+			proximoReintento = System.currentTimeMillis() + REINTENTO_RECARGA;
+			log.error("Error actualizando cache", e);
+		} finally {
+			recargas.increment();
+			nanosRecargas.add(System.nanoTime() - inicio);
+			escritura.lock();
+			try {
+				tocadosDuranteRecarga = null;
+			} finally {
+				escritura.unlock();
+			}
+		}
 	}
 
-	public int getCacheSize() {
-		return cache.size();
+	private void publicarTodo(List<DocenteEntity> docentes) {
+		Snapshot nuevo = Snapshot.desde(docentes, siguienteVersion());
+		this.snapshot = nuevo;
+		for (OyenteDocenteCache oyente : oyentes) {
+			oyente.alReemplazar(nuevo.ordenados());
+		}
 	}
 
-	public long getLastUpdate() {
-		return lastUpdate;
+	private void publicarDocente(String docenteId, DocenteEntity docente) {
+		if (tocadosDuranteRecarga != null) {
+			tocadosDuranteRecarga.add(docenteId);
+		}
+		this.snapshot = snapshot.conDocente(docenteId, docente, siguienteVersion());
+		for (OyenteDocenteCache oyente : oyentes) {
+			oyente.alCambiar(List.of(CambioDocente.modificado(docente)));
+		}
+	}
+
+	private void publicarCambios(List<CambioDocente> cambios) {
+		if (tocadosDuranteRecarga != null) {
+			for (CambioDocente cambio : cambios) {
+				tocadosDuranteRecarga.add(cambio.id());
+			}
+		}
+		this.snapshot = snapshot.conCambios(cambios, siguienteVersion());
+		for (OyenteDocenteCache oyente : oyentes) {
+			oyente.alCambiar(cambios);
+		}
+	}
+
+	private VersionCache siguienteVersion() {
+		return new VersionCache(epocaVersion, ++secuenciaVersion, System.currentTimeMillis());
+	}
+
+	// Indice id -> docente, lista ordenada por nombre y version de cada docente,
+	// todos inmutables
+	private record Snapshot(Map<String, DocenteEntity> porId, List<DocenteEntity> ordenados,
+			Map<String, VersionCache> versiones, VersionCache version, long bytesEstimados) {
+
+		static final Snapshot VACIO = new Snapshot(Map.of(), List.of(), Map.of(), new VersionCache(0, 0, 0), 0);
+
+		// En una carga completa todos los docentes toman la version nueva
+		static Snapshot desde(List<DocenteEntity> docentes, VersionCache version) {
+			Map<String, DocenteEntity> porId = new HashMap<>(docentes.size() * 2);
+			Map<String, VersionCache> versiones = new HashMap<>(docentes.size() * 2);
+			for (DocenteEntity docente : docentes) {
+				porId.put(docente.getId(), docente);
+				versiones.put(docente.getId(), version);
+			}
+			List<DocenteEntity> ordenados = new ArrayList<>(porId.values());
+			ordenados.sort(POR_NOMBRE);
+			long bytes = 0;
+			for (DocenteEntity docente : ordenados) {
+				bytes += EstimacionMemoria.docente(docente);
+			}
+			return new Snapshot(Collections.unmodifiableMap(porId), Collections.unmodifiableList(ordenados),
+					Collections.unmodifiableMap(versiones), version, bytes);
+		}
+
+		// Copia con el docente agregado o reemplazado (O(n), solo en escrituras)
+		Snapshot conDocente(String docenteId, DocenteEntity docente, VersionCache version) {
+			Map<String, DocenteEntity> nuevoPorId = new HashMap<>(porId);
+			DocenteEntity anterior = nuevoPorId.put(docenteId, docente);
+
+			List<DocenteEntity> nuevosOrdenados = new ArrayList<>(ordenados.size() + 1);
+			for (DocenteEntity actual : ordenados) {
+				if (actual != anterior) {
+					nuevosOrdenados.add(actual);
+				}
+			}
+			int pos = Collections.binarySearch(nuevosOrdenados, docente, POR_NOMBRE);
+			nuevosOrdenados.add(pos >= 0 ? pos : -pos - 1, docente);
+
+			Map<String, VersionCache> nuevasVersiones = new HashMap<>(versiones);
+			nuevasVersiones.put(docenteId, version);
+			long bytes = bytesEstimados + EstimacionMemoria.docente(docente)
+					- (anterior != null ? EstimacionMemoria.docente(anterior) : 0);
+			return new Snapshot(Collections.unmodifiableMap(nuevoPorId), Collections.unmodifiableList(nuevosOrdenados),
+					Collections.unmodifiableMap(nuevasVersiones), version, bytes);
+		}
+
+		// Copia con un lote de cambios aplicado. La lista queda casi ordenada, asi
+		// que el sort (TimSort) es practicamente lineal.
+		Snapshot conCambios(List<CambioDocente> cambios, VersionCache version) {
+			Map<String, DocenteEntity> nuevoPorId = new HashMap<>(porId);
+			Map<String, VersionCache> nuevasVersiones = new HashMap<>(versiones);
+			Set<DocenteEntity> salientes = Collections.newSetFromMap(new IdentityHashMap<>());
+			List<DocenteEntity> entrantes = new ArrayList<>();
+			long bytes = bytesEstimados;
+
+			for (CambioDocente cambio : cambios) {
+				DocenteEntity anterior = cambio.tipo() == CambioDocente.Tipo.ELIMINADO
+						? nuevoPorId.remove(cambio.id())
+						: nuevoPorId.put(cambio.id(), cambio.docente());
+				if (anterior != null) {
+					bytes -= EstimacionMemoria.docente(anterior);
+				}
+				if (cambio.tipo() != CambioDocente.Tipo.ELIMINADO) {
+					bytes += EstimacionMemoria.docente(cambio.docente());
+				}
+				if (anterior != null && !entrantes.remove(anterior)) {
+					salientes.add(anterior);
+				}
+				if (cambio.tipo() != CambioDocente.Tipo.ELIMINADO) {
+					entrantes.add(cambio.docente());
+					nuevasVersiones.put(cambio.id(), version);
+				} else {
+					nuevasVersiones.remove(cambio.id());
+				}
+			}
+
+			List<DocenteEntity> nuevosOrdenados = new ArrayList<>(ordenados.size() + entrantes.size());
+			for (DocenteEntity actual : ordenados) {
+				if (!salientes.contains(actual)) {
+					nuevosOrdenados.add(actual);
+				}
+			}
+			nuevosOrdenados.addAll(entrantes);
+			nuevosOrdenados.sort(POR_NOMBRE);
+
+			return new Snapshot(Collections.unmodifiableMap(nuevoPorId), Collections.unmodifiableList(nuevosOrdenados),
+					Collections.unmodifiableMap(nuevasVersiones), version, bytes);
+		}
+
+		// Mismos docentes, con version nueva para los indicados que esten en cache.
+		// La version global no cambia: el listado es el mismo.
+		Snapshot conVersion(Collection<String> docenteIds, VersionCache nueva) {
+			Map<String, VersionCache> nuevasVersiones = new HashMap<>(versiones);
+			for (String docenteId : docenteIds) {
+				nuevasVersiones.computeIfPresent(docenteId, (id, anterior) -> nueva);
+			}
+			return new Snapshot(porId, ordenados, Collections.unmodifiableMap(nuevasVersiones), version, bytesEstimados);
+		}
 	}
 }
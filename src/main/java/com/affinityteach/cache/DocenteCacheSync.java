@@ -0,0 +1,78 @@
+package com.affinityteach.cache;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.CambioDocente;
+import com.affinityteach.repository.DocenteChangeFeed;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Modo de sincronizacion "listener": en vez de recargar la coleccion entera cada
+// CACHE_TTL, el cache aplica solo los documentos que cambian.
+@Component
+@ConditionalOnProperty(name = "affinityteach.cache.sync", havingValue = "listener")
+public class DocenteCacheSync implements DocenteChangeFeed.Oyente {
+	private static final Logger log = LoggerFactory.getLogger(DocenteCacheSync.class);
+	private static final long REINTENTO_MS = 5_000;
+
+	private final DocenteCache docenteCache;
+	private final DocenteChangeFeed changeFeed;
+	private final ScheduledExecutorService reintentos = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread hilo = new Thread(r, "docente-cache-sync");
+		hilo.setDaemon(true);
+		return hilo;
+	});
+	private volatile DocenteChangeFeed.Suscripcion suscripcion;
+	private volatile boolean detenido = false;
+
+	public DocenteCacheSync(DocenteCache docenteCache, DocenteChangeFeed changeFeed) {
+		this.docenteCache = docenteCache;
+		this.changeFeed = changeFeed;
+	}
+
+	@PostConstruct
+	public void iniciar() {
+		suscripcion = changeFeed.suscribir(this);
+	}
+
+	@PreDestroy
+	public void detener() {
+		detenido = true;
+		docenteCache.setSincronizadoEnVivo(false);
+		if (suscripcion != null) {
+			suscripcion.cancelar();
+		}
+		reintentos.shutdownNow();
+	}
+
+	@Override
+	public void alCargar(List<DocenteEntity> docentes) {
+		docenteCache.reemplazarTodo(docentes);
+		docenteCache.setSincronizadoEnVivo(true);
+	}
+
+	@Override
+	public void alCambiar(List<CambioDocente> cambios) {
+		docenteCache.aplicarCambios(cambios);
+	}
+
+	@Override
+	public void alFallar(Throwable error) {
+		// Mientras no haya listener vuelve a regir el TTL del cache
+		log.warn("Listener de docentes cortado: {}", error.getMessage());
+		docenteCache.setSincronizadoEnVivo(false);
+		if (!detenido) {
+			reintentos.schedule(this::iniciar, REINTENTO_MS, TimeUnit.MILLISECONDS);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.affinityteach.cache;
+
+import java.util.List;
+import java.util.Map;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.model.entity.ResenaEntity;
+
+// Tamaño aproximado en heap (JVM de 64 bits con compressed oops). No busca
+// exactitud: alcanza para acotar el cache y saber cuanto ocupa.
+final class EstimacionMemoria {
+	private static final int OBJETO = 16;
+	private static final int REFERENCIA = 4;
+	private static final int ENTERO = 16;
+	private static final int TIMESTAMP = 24;
+	private static final int LISTA = 40;
+	private static final int ENTRADA_MAPA = 32;
+
+	private EstimacionMemoria() {
+	}
+
+	static long docente(DocenteEntity docente) {
+		long bytes = OBJETO + 10L * REFERENCIA + texto(docente.getId()) + texto(docente.getNombre())
+				+ 4L * ENTERO;
+		List<String> materias = docente.getMaterias();
+		if (materias != null) {
+			bytes += LISTA + (long) materias.size() * REFERENCIA;
+			for (String materia : materias) {
+				bytes += texto(materia);
+			}
+		}
+		Map<String, Long> histograma = docente.getHistograma();
+		if (histograma != null) {
+			bytes += LISTA + (long) histograma.size() * (ENTRADA_MAPA + ENTERO);
+		}
+		// Formato viejo: reseñas embebidas todavia no migradas
+		if (docente.getResenas() != null) {
+			bytes += resenas(docente.getResenas());
+		}
+		return bytes;
+	}
+
+	static long resenas(List<ResenaEntity> resenas) {
+		long bytes = LISTA + (long) resenas.size() * REFERENCIA;
+		for (ResenaEntity resena : resenas) {
+			bytes += resena(resena);
+		}
+		return bytes;
+	}
+
+	static long resena(ResenaEntity resena) {
+		return OBJETO + 8L * REFERENCIA + 2L * ENTERO + TIMESTAMP
+				+ texto(resena.getId()) + texto(resena.getEstudiante()) + texto(resena.getComentario())
+				+ texto(resena.getPhoto()) + texto(resena.getEmail());
+	}
+
+	// String compacto (Latin-1): cabecera + array de bytes. Con otros
+	// caracteres ocupa el doble; se cuenta asi para no quedarse corto.
+	static long texto(String texto) {
+		return texto == null ? 0 : 40L + 2L * texto.length();
+	}
+}
@@ -0,0 +1,255 @@
+package com.affinityteach.cache;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.CambioDocente;
+
+// Indice de busqueda sobre nombre y materias, sincronizado con DocenteCache.
+// El texto se normaliza (minusculas, sin acentos) y se indexa por trigramas
+// (busqueda por subcadena) y por comienzo de palabra de 1 y 2 letras (para las
+// primeras teclas). Las consultas no leen Firestore.
+@Component
+public class IndiceBusquedaDocentes implements OyenteDocenteCache {
+	private static final int N = 3;
+	private static final String INICIO_PALABRA = "^";
+	private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	// Peso de cada tipo de coincidencia de un termino
+	private static final int NOMBRE_EXACTO = 100;
+	private static final int NOMBRE_EMPIEZA = 60;
+	private static final int PALABRA_NOMBRE_EMPIEZA = 40;
+	private static final int NOMBRE_CONTIENE = 20;
+	private static final int MATERIA_EMPIEZA = 15;
+	private static final int MATERIA_CONTIENE = 10;
+
+	private static final Comparator<Resultado> MEJOR_PRIMERO = Comparator
+			.comparingInt(Resultado::puntos).reversed()
+			.thenComparing(r -> r.docente().getPuntaje(), Comparator.nullsLast(Comparator.<Double>reverseOrder()))
+			.thenComparing(r -> r.docente().getNombre(), Comparator.nullsLast(Comparator.<String>naturalOrder()));
+
+	// Se reemplaza entero en cada carga completa; los cambios sueltos lo modifican
+	private volatile Indice indice = new Indice();
+
+	public IndiceBusquedaDocentes(DocenteCache docenteCache) {
+		docenteCache.registrarOyente(this);
+	}
+
+	@Override
+	public void alReemplazar(Collection<DocenteEntity> docentes) {
+		Indice nuevo = new Indice();
+		for (DocenteEntity docente : docentes) {
+			nuevo.agregar(docente);
+		}
+		this.indice = nuevo;
+	}
+
+	@Override
+	public void alCambiar(List<CambioDocente> cambios) {
+		Indice actual = indice;
+		for (CambioDocente cambio : cambios) {
+			if (cambio.tipo() == CambioDocente.Tipo.ELIMINADO) {
+				actual.quitar(cambio.id());
+			} else {
+				actual.agregar(cambio.docente());
+			}
+		}
+	}
+
+	// Los mejores limite docentes que contienen todos los terminos de la consulta
+	public List<DocenteEntity> buscar(String consulta, int limite) {
+		String normalizada = normalizar(consulta);
+		if (normalizada.isEmpty() || limite <= 0) {
+			return List.of();
+		}
+		String[] terminos = normalizada.split(" ");
+		Indice actual = indice;
+
+		// Peor resultado arriba, para descartarlo cuando entra uno mejor
+		PriorityQueue<Resultado> mejores = new PriorityQueue<>(limite + 1, MEJOR_PRIMERO.reversed());
+		for (String id : actual.candidatos(terminos)) {
+			Documento documento = actual.documentos.get(id);
+			if (documento == null) {
+				continue;
+			}
+			int puntos = puntuar(documento, normalizada, terminos);
+			if (puntos > 0) {
+				mejores.add(new Resultado(documento.docente(), puntos));
+				if (mejores.size() > limite) {
+					mejores.poll();
+				}
+			}
+		}
+
+		List<Resultado> ordenados = new ArrayList<>(mejores);
+		ordenados.sort(MEJOR_PRIMERO);
+		List<DocenteEntity> docentes = new ArrayList<>(ordenados.size());
+		for (Resultado resultado : ordenados) {
+			docentes.add(resultado.docente());
+		}
+		return docentes;
+	}
+
+	public int getCantidadIndexados() {
+		return indice.documentos.size();
+	}
+
+	// Minusculas, sin acentos y con un solo espacio entre palabras
+	static String normalizar(String texto) {
+		if (texto == null) {
+			return "";
+		}
+		String sinAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+		return SEPARADORES.matcher(sinAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+	}
+
+	// 0 si algun termino no aparece (la consulta es un AND de terminos)
+	private static int puntuar(Documento documento, String consulta, String[] terminos) {
+		int total = documento.nombre().equals(consulta) ? NOMBRE_EXACTO : 0;
+		for (String termino : terminos) {
+			int puntos = 0;
+			if (documento.nombre().startsWith(termino)) {
+				puntos = NOMBRE_EMPIEZA;
+			} else if (empiezaPalabra(documento.nombre(), termino)) {
+				puntos = PALABRA_NOMBRE_EMPIEZA;
+			} else if (termino.length() >= N && documento.nombre().contains(termino)) {
+				puntos = NOMBRE_CONTIENE;
+			} else {
+				for (String materia : documento.materias()) {
+					if (empiezaPalabra(materia, termino)) {
+						puntos = MATERIA_EMPIEZA;
+						break;
+					}
+					if (termino.length() >= N && materia.contains(termino)) {
+						puntos = MATERIA_CONTIENE;
+					}
+				}
+			}
+			if (puntos == 0) {
+				return 0;
+			}
+			total += puntos;
+		}
+		return total;
+	}
+
+	private static boolean empiezaPalabra(String texto, String termino) {
+		return texto.startsWith(termino) || texto.contains(" " + termino);
+	}
+
+	// Claves de un texto ya normalizado: trigramas y comienzos de palabra
+	private static void claves(String texto, Set<String> destino) {
+		for (int i = 0; i + N <= texto.length(); i++) {
+			destino.add(texto.substring(i, i + N));
+		}
+		for (String palabra : texto.split(" ")) {
+			for (int largo = 1; largo < N && largo <= palabra.length(); largo++) {
+				destino.add(INICIO_PALABRA + palabra.substring(0, largo));
+			}
+		}
+	}
+
+	// Claves que tiene que tener un docente para poder contener el termino
+	private static List<String> clavesDeTermino(String termino) {
+		if (termino.length() < N) {
+			return List.of(INICIO_PALABRA + termino);
+		}
+		Set<String> trigramas = new HashSet<>();
+		claves(termino, trigramas);
+		trigramas.removeIf(clave -> clave.startsWith(INICIO_PALABRA));
+		return new ArrayList<>(trigramas);
+	}
+
+	private record Documento(DocenteEntity docente, String nombre, List<String> materias, Set<String> claves) {
+	}
+
+	private record Resultado(DocenteEntity docente, int puntos) {
+	}
+
+	private static class Indice {
+		final Map<String, Documento> documentos = new ConcurrentHashMap<>();
+		// clave -> ids de los docentes que la tienen
+		final Map<String, Set<String>> posting = new ConcurrentHashMap<>();
+
+		void agregar(DocenteEntity docente) {
+			String nombre = normalizar(docente.getNombre());
+			List<String> materias = new ArrayList<>();
+			if (docente.getMaterias() != null) {
+				for (String materia : docente.getMaterias()) {
+					materias.add(normalizar(materia));
+				}
+			}
+
+			Documento anterior = documentos.get(docente.getId());
+			if (anterior != null && anterior.nombre().equals(nombre) && anterior.materias().equals(materias)) {
+				// Solo cambiaron otros campos (puntaje, reseñas): mismas claves
+				documentos.put(docente.getId(), new Documento(docente, nombre, materias, anterior.claves()));
+				return;
+			}
+
+			Set<String> claves = new HashSet<>();
+			claves(nombre, claves);
+			for (String materia : materias) {
+				claves(materia, claves);
+			}
+			if (anterior != null) {
+				quitarClaves(docente.getId(), anterior.claves());
+			}
+			for (String clave : claves) {
+				posting.computeIfAbsent(clave, k -> ConcurrentHashMap.newKeySet()).add(docente.getId());
+			}
+			documentos.put(docente.getId(), new Documento(docente, nombre, materias, claves));
+		}
+
+		void quitar(String id) {
+			Documento anterior = documentos.remove(id);
+			if (anterior != null) {
+				quitarClaves(id, anterior.claves());
+			}
+		}
+
+		private void quitarClaves(String id, Set<String> claves) {
+			for (String clave : claves) {
+				posting.computeIfPresent(clave, (k, ids) -> {
+					ids.remove(id);
+					return ids.isEmpty() ? null : ids;
+				});
+			}
+		}
+
+		// Interseccion de las listas de cada termino, empezando por la mas corta
+		Collection<String> candidatos(String[] terminos) {
+			List<Set<String>> listas = new ArrayList<>();
+			for (String termino : terminos) {
+				for (String clave : clavesDeTermino(termino)) {
+					Set<String> ids = posting.get(clave);
+					if (ids == null) {
+						return List.of();
+					}
+					listas.add(ids);
+				}
+			}
+			listas.sort(Comparator.comparingInt(Set::size));
+
+			Set<String> resultado = new HashSet<>(listas.get(0));
+			for (int i = 1; i < listas.size() && !resultado.isEmpty(); i++) {
+				resultado.retainAll(listas.get(i));
+			}
+			return resultado;
+		}
+	}
+}
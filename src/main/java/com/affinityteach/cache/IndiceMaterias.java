@@ -0,0 +1,348 @@
+package com.affinityteach.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.stereotype.Component;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.CambioDocente;
+
+// Indice invertido materia -> docentes, sincronizado con DocenteCache. Cada
+// docente tiene un id interno denso y cada materia (normalizada) un BitSet
+// sobre esos ids, asi los filtros AND/OR y los conteos por materia son
+// operaciones de bits. Un cambio copia solo los BitSet de las materias que
+// toca; el estado se publica entero, y el lector siempre ve uno consistente.
+// Los ids de los eliminados no se reusan (un lector podria estar viendo el
+// estado anterior); cuando los muertos superan a los vivos se compacta.
+@Component
+public class IndiceMaterias implements OyenteDocenteCache {
+
+	// Por debajo de esto no vale la pena compactar
+	private static final int MIN_MUERTOS_COMPACTAR = 1024;
+
+	// Se reemplaza entero en cada carga completa; los cambios sueltos lo modifican
+	private volatile Indice indice = new Indice(0);
+
+	public IndiceMaterias(DocenteCache docenteCache) {
+		docenteCache.registrarOyente(this);
+	}
+
+	@Override
+	public void alReemplazar(Collection<DocenteEntity> docentes) {
+		Indice nuevo = new Indice(indice.generacion + 1);
+		nuevo.aplicar(docentes, List.of());
+		this.indice = nuevo;
+	}
+
+	@Override
+	public void alCambiar(List<CambioDocente> cambios) {
+		List<DocenteEntity> agregados = new ArrayList<>(cambios.size());
+		List<String> eliminados = new ArrayList<>();
+		for (CambioDocente cambio : cambios) {
+			if (cambio.tipo() == CambioDocente.Tipo.ELIMINADO) {
+				eliminados.add(cambio.id());
+			} else {
+				agregados.add(cambio.docente());
+			}
+		}
+		Indice actual = indice;
+		actual.aplicar(agregados, eliminados);
+		if (actual.muertos() > Math.max(MIN_MUERTOS_COMPACTAR, actual.internos.size())) {
+			compactar(actual);
+		}
+	}
+
+	// Renumera los vivos en el mismo orden en un indice nuevo (con otra
+	// generacion, asi los cursores viejos se rechazan como en una recarga)
+	private void compactar(Indice actual) {
+		List<DocenteEntity> vivos = new ArrayList<>(actual.internos.size());
+		for (int i = 0; i < actual.siguiente; i++) {
+			Slot slot = actual.slots.get(i);
+			if (slot != null) {
+				vivos.add(slot.docente());
+			}
+		}
+		Indice nuevo = new Indice(actual.generacion + 1);
+		nuevo.aplicar(vivos, List.of());
+		this.indice = nuevo;
+	}
+
+	// Docentes que dictan todas (o alguna) de las materias, en el orden del
+	// indice (por nombre despues de cada recarga; los nuevos al final). Con
+	// facetas: cuantos de esos resultados dicta cada materia.
+	public ResultadoFiltro filtrar(List<String> materias, boolean todas, String cursor, int limite) {
+		Indice actual = indice;
+		Estado estado = actual.estado;
+		int desde = cursor != null && !cursor.isBlank() ? decodificarCursor(cursor, actual.generacion) : 0;
+
+		BitSet resultado = seleccionar(estado, materias, todas);
+		AtomicReferenceArray<Slot> slots = actual.slots;
+		List<DocenteEntity> docentes = new ArrayList<>(Math.min(limite, 64));
+		int i = resultado.nextSetBit(desde);
+		for (; i >= 0 && docentes.size() < limite; i = resultado.nextSetBit(i + 1)) {
+			Slot slot = i < slots.length() ? slots.get(i) : null;
+			if (slot != null) {
+				docentes.add(slot.docente());
+			}
+		}
+		String siguiente = i >= 0 ? codificarCursor(actual.generacion, i) : null;
+		return new ResultadoFiltro(docentes, resultado.cardinality(), facetas(estado, resultado, slots), siguiente);
+	}
+
+	public int getCantidadMaterias() {
+		return indice.estado.materias.size();
+	}
+
+	// Ids internos reservados (vivos y eliminados)
+	int getCapacidad() {
+		return indice.slots.length();
+	}
+
+	private static BitSet seleccionar(Estado estado, List<String> materias, boolean todas) {
+		List<String> normalizadas = new ArrayList<>();
+		if (materias != null) {
+			for (String materia : materias) {
+				String normalizada = IndiceBusquedaDocentes.normalizar(materia);
+				if (!normalizada.isEmpty()) {
+					normalizadas.add(normalizada);
+				}
+			}
+		}
+		if (normalizadas.isEmpty()) {
+			return estado.todos;
+		}
+
+		BitSet resultado = null;
+		for (String materia : normalizadas) {
+			Materia entrada = estado.materias.get(materia);
+			if (entrada == null) {
+				if (todas) {
+					return new BitSet();
+				}
+				continue;
+			}
+			if (resultado == null) {
+				resultado = (BitSet) entrada.docentes().clone();
+			} else if (todas) {
+				resultado.and(entrada.docentes());
+			} else {
+				resultado.or(entrada.docentes());
+			}
+		}
+		return resultado != null ? resultado : new BitSet();
+	}
+
+	// Mas frecuente primero (empate: orden alfabetico sin acentos); sin las
+	// que quedan en cero. Sin filtro el conteo es el de cada materia; con
+	// filtro se recorren solo los resultados y se suman sus materias, sin
+	// copiar ningun BitSet.
+	private static Map<String, Integer> facetas(Estado estado, BitSet resultado,
+			AtomicReferenceArray<Slot> slots) {
+		List<Faceta> conteos = new ArrayList<>();
+		if (resultado == estado.todos) {
+			for (Map.Entry<String, Materia> materia : estado.materias.entrySet()) {
+				conteos.add(new Faceta(materia.getKey(), materia.getValue().nombre(),
+						materia.getValue().docentes().cardinality()));
+			}
+		} else {
+			Map<String, int[]> porMateria = new HashMap<>();
+			for (int i = resultado.nextSetBit(0); i >= 0; i = resultado.nextSetBit(i + 1)) {
+				Slot slot = i < slots.length() ? slots.get(i) : null;
+				if (slot == null) {
+					continue;
+				}
+				for (String materia : slot.materias()) {
+					// El slot puede ser de un cambio posterior al estado leido
+					Materia entrada = estado.materias.get(materia);
+					if (entrada != null && entrada.docentes().get(i)) {
+						porMateria.computeIfAbsent(materia, m -> new int[1])[0]++;
+					}
+				}
+			}
+			porMateria.forEach((materia, cantidad) ->
+					conteos.add(new Faceta(materia, estado.materias.get(materia).nombre(), cantidad[0])));
+		}
+		conteos.sort(Comparator.comparingInt(Faceta::cantidad).reversed().thenComparing(Faceta::clave));
+		Map<String, Integer> facetas = new LinkedHashMap<>();
+		for (Faceta faceta : conteos) {
+			facetas.put(faceta.nombre(), faceta.cantidad());
+		}
+		return facetas;
+	}
+
+	// Generacion del indice y posicion interna, en base64url
+	private static String codificarCursor(long generacion, int posicion) {
+		String crudo = generacion + ":" + posicion;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(crudo.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// Despues de una recarga o compactacion los ids internos cambian: el cursor viejo ya no sirve
+	private static int decodificarCursor(String cursor, long generacion) {
+		String[] partes;
+		try {
+			partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+			if (partes.length == 2 && Long.parseLong(partes[0]) == generacion) {
+				return Math.max(0, Integer.parseInt(partes[1]));
+			}
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Cursor invalido: " + cursor);
+		}
+		throw new IllegalArgumentException("El cursor vencio (se recargaron los docentes); pedir desde el principio");
+	}
+
+	// Una pagina del filtro; total cuenta todos los resultados, no solo la pagina
+	public record ResultadoFiltro(List<DocenteEntity> docentes, int total, Map<String, Integer> facetas,
+			String siguienteCursor) {
+	}
+
+	private record Faceta(String clave, String nombre, int cantidad) {
+	}
+
+	private record Slot(DocenteEntity docente, Set<String> materias) {
+	}
+
+	// nombre: como aparecio la primera vez (para mostrar en las facetas)
+	private record Materia(String nombre, BitSet docentes) {
+	}
+
+	// Nunca se modifica despues de publicado
+	private record Estado(Map<String, Materia> materias, BitSet todos) {
+	}
+
+	private static class Indice {
+		final long generacion;
+		// Solo los usa quien escribe (bajo el lock de DocenteCache)
+		final Map<String, Integer> internos = new HashMap<>();
+		int siguiente;
+
+		volatile AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<>(16);
+		volatile Estado estado = new Estado(Map.of(), new BitSet());
+
+		Indice(long generacion) {
+			this.generacion = generacion;
+		}
+
+		// Los slots se escriben antes de publicar el estado que los nombra
+		void aplicar(Collection<DocenteEntity> agregados, Collection<String> eliminados) {
+			Estado anterior = estado;
+			Map<String, Materia> materias = new HashMap<>(anterior.materias);
+			// Materias ya copiadas en este cambio (se pueden modificar)
+			Set<String> copiadas = new HashSet<>();
+			BitSet todos = (BitSet) anterior.todos.clone();
+
+			for (String id : eliminados) {
+				Integer interno = internos.remove(id);
+				if (interno != null) {
+					quitar(interno, slots.get(interno), materias, copiadas);
+					slots.set(interno, null);
+					todos.clear(interno);
+				}
+			}
+			for (DocenteEntity docente : agregados) {
+				Integer existente = internos.get(docente.getId());
+				int interno = existente != null ? existente : nuevoInterno(docente.getId());
+				Slot viejo = existente != null ? slots.get(interno) : null;
+				Slot nuevo = new Slot(docente, materiasDe(docente));
+
+				if (viejo != null) {
+					Set<String> quitadas = new LinkedHashSet<>(viejo.materias());
+					quitadas.removeAll(nuevo.materias());
+					quitar(interno, new Slot(viejo.docente(), quitadas), materias, copiadas);
+				}
+				for (String materia : nuevo.materias()) {
+					if (viejo == null || !viejo.materias().contains(materia)) {
+						editable(materia, nombreOriginal(docente, materia), materias, copiadas).set(interno);
+					}
+				}
+				slots.set(interno, nuevo);
+				todos.set(interno);
+			}
+			estado = new Estado(Map.copyOf(materias), todos);
+		}
+
+		// Ids que quedaron sin docente (no se reusan hasta compactar)
+		int muertos() {
+			return siguiente - internos.size();
+		}
+
+		private int nuevoInterno(String id) {
+			int interno = siguiente++;
+			if (interno == slots.length()) {
+				AtomicReferenceArray<Slot> mas = new AtomicReferenceArray<>(slots.length() * 2);
+				for (int i = 0; i < slots.length(); i++) {
+					mas.set(i, slots.get(i));
+				}
+				slots = mas;
+			}
+			internos.put(id, interno);
+			return interno;
+		}
+
+		private static void quitar(int interno, Slot slot, Map<String, Materia> materias, Set<String> copiadas) {
+			if (slot == null) {
+				return;
+			}
+			for (String materia : slot.materias()) {
+				if (!materias.containsKey(materia)) {
+					continue;
+				}
+				BitSet docentes = editable(materia, null, materias, copiadas);
+				docentes.clear(interno);
+				if (docentes.isEmpty()) {
+					materias.remove(materia);
+					copiadas.remove(materia);
+				}
+			}
+		}
+
+		// Copia el BitSet de la materia la primera vez que se toca en este cambio
+		private static BitSet editable(String materia, String nombre, Map<String, Materia> materias,
+				Set<String> copiadas) {
+			Materia actual = materias.get(materia);
+			if (actual == null) {
+				actual = new Materia(nombre != null ? nombre : materia, new BitSet());
+				materias.put(materia, actual);
+				copiadas.add(materia);
+			} else if (copiadas.add(materia)) {
+				actual = new Materia(actual.nombre(), (BitSet) actual.docentes().clone());
+				materias.put(materia, actual);
+			}
+			return actual.docentes();
+		}
+
+		private static Set<String> materiasDe(DocenteEntity docente) {
+			Set<String> materias = new LinkedHashSet<>();
+			if (docente.getMaterias() != null) {
+				for (String materia : docente.getMaterias()) {
+					String normalizada = IndiceBusquedaDocentes.normalizar(materia);
+					if (!normalizada.isEmpty()) {
+						materias.add(normalizada);
+					}
+				}
+			}
+			return materias;
+		}
+
+		private static String nombreOriginal(DocenteEntity docente, String normalizada) {
+			for (String materia : docente.getMaterias()) {
+				if (IndiceBusquedaDocentes.normalizar(materia).equals(normalizada)) {
+					return materia.trim();
+				}
+			}
+			return normalizada;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.affinityteach.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Metricas de los dos niveles del cache. Se leen de los contadores del propio
+// cache al momento del scrape, sin costo en el camino de cada request.
+@Component
+public class MetricasCache implements MeterBinder {
+	private final DocenteCache docenteCache;
+	private final CacheResenas cacheResenas;
+	private final OrdenesResenas ordenesResenas;
+
+	public MetricasCache(DocenteCache docenteCache, CacheResenas cacheResenas, OrdenesResenas ordenesResenas) {
+		this.docenteCache = docenteCache;
+		this.cacheResenas = cacheResenas;
+		this.ordenesResenas = ordenesResenas;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		// Docentes: lecturas por id (un fallo va a Firestore)
+		FunctionCounter.builder("affinityteach.cache.docentes.consultas", docenteCache, DocenteCache::getAciertos)
+				.description("Busquedas de docente por id")
+				.tag("resultado", "hit")
+				.register(registry);
+		FunctionCounter.builder("affinityteach.cache.docentes.consultas", docenteCache, DocenteCache::getFallos)
+				.description("Busquedas de docente por id")
+				.tag("resultado", "miss")
+				.register(registry);
+		Gauge.builder("affinityteach.cache.docentes.tamanio", docenteCache, DocenteCache::getCacheSize)
+				.description("Docentes en cache")
+				.register(registry);
+		Gauge.builder("affinityteach.cache.docentes.bytes", docenteCache, DocenteCache::getBytesEstimados)
+				.description("Memoria estimada de los docentes en cache")
+				.baseUnit("bytes")
+				.register(registry);
+		Gauge.builder("affinityteach.cache.docentes.edad", docenteCache,
+				cache -> cache.getLastUpdate() == 0 ? Double.NaN
+						: (System.currentTimeMillis() - cache.getLastUpdate()) / 1000.0)
+				.description("Segundos desde la ultima carga o cambio aplicado")
+				.baseUnit("seconds")
+				.register(registry);
+
+		// Recargas completas
+		FunctionTimer.builder("affinityteach.cache.recarga", docenteCache, DocenteCache::getRecargas,
+				DocenteCache::getNanosRecargas, TimeUnit.NANOSECONDS)
+				.description("Recargas completas desde Firestore")
+				.register(registry);
+		FunctionCounter.builder("affinityteach.cache.recarga.fallidas", docenteCache, DocenteCache::getRecargasFallidas)
+				.description("Recargas completas que fallaron")
+				.register(registry);
+		Gauge.builder("affinityteach.cache.recarga.documentos", docenteCache, DocenteCache::getDocumentosUltimaRecarga)
+				.description("Documentos leidos en la ultima recarga")
+				.register(registry);
+
+		// Reseñas: hits, misses, desalojos, tamaño y peso (cache.* con cache=resenas)
+		CaffeineCacheMetrics.monitor(registry, cacheResenas.getCache(), "resenas");
+		Gauge.builder("affinityteach.cache.resenas.bytes", cacheResenas, CacheResenas::getBytesEstimados)
+				.description("Memoria estimada de las paginas de reseñas en cache")
+				.baseUnit("bytes")
+				.register(registry);
+
+		// Reseñas ordenadas por docente (cache=resenas-ordenadas)
+		CaffeineCacheMetrics.monitor(registry, ordenesResenas.getCache(), "resenas-ordenadas");
+	}
+}
@@ -0,0 +1,55 @@
+package com.affinityteach.cache;
+
+import java.util.Comparator;
+
+import com.affinityteach.model.entity.ResenaEntity;
+import com.google.cloud.Timestamp;
+
+// Ordenes de reseñas que arma el servidor. Todos terminan en (fecha desc, id)
+// para que el orden sea total y el cursor no repita ni saltee reseñas.
+public enum OrdenResenas {
+	LIKES("likes", Comparator.comparingInt(OrdenResenas::likes).reversed()),
+	RECIENTES("recientes", (a, b) -> 0),
+	MAS_ESTRELLAS("mas-estrellas", Comparator.comparingInt(OrdenResenas::estrellas).reversed()),
+	MENOS_ESTRELLAS("menos-estrellas", Comparator.comparingInt(OrdenResenas::estrellas));
+
+	private final String parametro;
+	private final Comparator<ResenaEntity> comparador;
+
+	OrdenResenas(String parametro, Comparator<ResenaEntity> principal) {
+		this.parametro = parametro;
+		this.comparador = principal.thenComparing(masNuevaPrimero());
+	}
+
+	public String getParametro() {
+		return parametro;
+	}
+
+	Comparator<ResenaEntity> comparador() {
+		return comparador;
+	}
+
+	public static OrdenResenas desdeParametro(String parametro) {
+		for (OrdenResenas orden : values()) {
+			if (orden.parametro.equals(parametro)) {
+				return orden;
+			}
+		}
+		throw new IllegalArgumentException("El orden debe ser likes, recientes, mas-estrellas o menos-estrellas");
+	}
+
+	// Metodo y no constante: el constructor del enum no puede leer campos static
+	private static Comparator<ResenaEntity> masNuevaPrimero() {
+		return Comparator
+				.comparing(ResenaEntity::getFecha, Comparator.nullsLast(Comparator.<Timestamp>reverseOrder()))
+				.thenComparing(ResenaEntity::getId);
+	}
+
+	private static int likes(ResenaEntity resena) {
+		return resena.getLikes() != null ? resena.getLikes() : 0;
+	}
+
+	private static int estrellas(ResenaEntity resena) {
+		return resena.getEstrellas() != null ? resena.getEstrellas() : 0;
+	}
+}
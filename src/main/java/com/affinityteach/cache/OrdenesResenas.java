@@ -0,0 +1,229 @@
+package com.affinityteach.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.affinityteach.model.entity.ResenaEntity;
+import com.affinityteach.repository.CursorResena;
+import com.affinityteach.repository.DocenteRepository;
+import com.affinityteach.repository.PaginaResenas;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.cloud.Timestamp;
+
+// Reseñas de cada docente ordenadas por likes, fecha y estrellas, para paginar
+// en el orden pedido sin ordenar en cada request. La primera consulta de un
+// docente lee toda su subcoleccion; despues agregarResena y darLike mueven solo
+// la reseña que cambia (O(log n)) y cualquier pagina cuesta O(log n + limite),
+// tenga el docente 10 o 10.000 reseñas.
+//
+// Acotado por tamaño estimado (el peso se calcula al cargar). Si la cantidad de
+// reseñas del docente en DocenteCache no coincide (las escribio otra instancia)
+// se vuelve a cargar; los likes de otras instancias se ven al vencer la entrada.
+@Component
+public class OrdenesResenas {
+	private static final int PAGINA_CARGA = 1000;
+	private static final Duration VENCIMIENTO = Duration.ofMinutes(10);
+	// Nodo de skip list por orden mas la entrada del mapa por id (aproximado)
+	private static final long BYTES_POR_RESENA = OrdenResenas.values().length * 48L + 64;
+
+	private final DocenteRepository docenteRepository;
+	private final long maxBytes;
+	private final AsyncCache<String, Ordenes> ordenes;
+
+	public OrdenesResenas(DocenteRepository docenteRepository,
+			@Value("${affinityteach.cache.ordenes-resenas.max-bytes:33554432}") long maxBytes) {
+		this.docenteRepository = docenteRepository;
+		this.maxBytes = maxBytes;
+		this.ordenes = Caffeine.newBuilder()
+				.maximumWeight(maxBytes)
+				.weigher((String id, Ordenes o) -> (int) Math.min(Integer.MAX_VALUE, o.bytesEstimados))
+				.expireAfterWrite(VENCIMIENTO)
+				.recordStats()
+				.buildAsync();
+	}
+
+	// cantResenas: la del docente en DocenteCache (null si no se sabe)
+	public CompletableFuture<PaginaResenas> pagina(String docenteId, Integer cantResenas, OrdenResenas orden,
+			String cursor, int limite) {
+		ResenaEntity desde = cursor != null && !cursor.isBlank() ? decodificarCursor(cursor, orden) : null;
+		return obtener(docenteId, cantResenas).thenApply(o -> o.pagina(orden, desde, limite));
+	}
+
+	// Reseña recien escrita. Si el docente se esta cargando se aplica al
+	// terminar (la carga puede haberla leido: reemplaza por id).
+	public void agregar(String docenteId, ResenaEntity resena) {
+		CompletableFuture<Ordenes> cargado = ordenes.getIfPresent(docenteId);
+		if (cargado != null) {
+			cargado.thenAccept(o -> o.poner(resena));
+		}
+	}
+
+	// resena trae el total estimado de likes; como solo suben, una vista
+	// atrasada (de un like concurrente) no pisa a una mas nueva
+	public void actualizarLikes(String docenteId, ResenaEntity resena) {
+		CompletableFuture<Ordenes> cargado = ordenes.getIfPresent(docenteId);
+		if (cargado != null) {
+			cargado.thenAccept(o -> o.ponerSiTieneMasLikes(resena));
+		}
+	}
+
+	public void invalidar(String docenteId) {
+		ordenes.synchronous().invalidate(docenteId);
+	}
+
+	public void invalidarTodo() {
+		ordenes.synchronous().invalidateAll();
+	}
+
+	public long getCantidadDocentes() {
+		return ordenes.synchronous().estimatedSize();
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	AsyncCache<?, ?> getCache() {
+		return ordenes;
+	}
+
+	// Cargas simultaneas del mismo docente comparten la lectura
+	private CompletableFuture<Ordenes> obtener(String docenteId, Integer cantResenas) {
+		CompletableFuture<Ordenes> cargado = ordenes.getIfPresent(docenteId);
+		if (cargado != null && cargado.isDone() && !cargado.isCompletedExceptionally()
+				&& cantResenas != null && cargado.join().cantidad() != cantResenas) {
+			ordenes.asMap().remove(docenteId, cargado);
+		}
+		return ordenes.get(docenteId, (id, ejecutor) -> CompletableFuture.supplyAsync(() -> cargar(id),
+				DocenteRepository.EJECUTOR_BLOQUEANTE));
+	}
+
+	private Ordenes cargar(String docenteId) {
+		List<ResenaEntity> todas = new ArrayList<>();
+		CursorResena cursor = null;
+		do {
+			PaginaResenas pagina = docenteRepository.findResenas(docenteId, cursor, PAGINA_CARGA);
+			todas.addAll(pagina.resenas());
+			cursor = pagina.siguienteCursor() != null ? CursorResena.decodificar(pagina.siguienteCursor()) : null;
+		} while (cursor != null);
+
+		Ordenes cargado = new Ordenes(64 + EstimacionMemoria.resenas(todas) + todas.size() * BYTES_POR_RESENA);
+		for (ResenaEntity resena : todas) {
+			cargado.poner(resena);
+		}
+		return cargado;
+	}
+
+	// orden, likes, estrellas, fecha e id de la ultima reseña, en base64url
+	private static String codificarCursor(OrdenResenas orden, ResenaEntity ultima) {
+		Timestamp fecha = ultima.getFecha();
+		String crudo = orden.getParametro() + ":" + (ultima.getLikes() != null ? ultima.getLikes() : 0)
+				+ ":" + (ultima.getEstrellas() != null ? ultima.getEstrellas() : 0)
+				+ ":" + (fecha != null ? fecha.getSeconds() + "." + fecha.getNanos() : "")
+				+ ":" + ultima.getId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(crudo.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// Reseña "sonda" con solo los campos que comparan los ordenes
+	private static ResenaEntity decodificarCursor(String cursor, OrdenResenas orden) {
+		ResenaEntity sonda = new ResenaEntity();
+		try {
+			String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 5);
+			if (partes.length != 5 || !partes[0].equals(orden.getParametro())) {
+				throw new IllegalArgumentException();
+			}
+			sonda.setLikes(Integer.parseInt(partes[1]));
+			sonda.setEstrellas(Integer.parseInt(partes[2]));
+			if (!partes[3].isEmpty()) {
+				int punto = partes[3].indexOf('.');
+				sonda.setFecha(Timestamp.ofTimeSecondsAndNanos(Long.parseLong(partes[3].substring(0, punto)),
+						Integer.parseInt(partes[3].substring(punto + 1))));
+			}
+			sonda.setId(partes[4]);
+			return sonda;
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Cursor invalido para el orden " + orden.getParametro() + ": " + cursor);
+		}
+	}
+
+	// Las reseñas no se modifican despues de entrar: un cambio es otra instancia.
+	// Las listas guardan la version con la que entro cada una; vale la del mapa.
+	private static final class Ordenes {
+		final long bytesEstimados;
+		final Map<String, ResenaEntity> porId = new ConcurrentHashMap<>();
+		final Map<OrdenResenas, NavigableSet<ResenaEntity>> listas = new EnumMap<>(OrdenResenas.class);
+
+		Ordenes(long bytesEstimados) {
+			this.bytesEstimados = bytesEstimados;
+			for (OrdenResenas orden : OrdenResenas.values()) {
+				listas.put(orden, new ConcurrentSkipListSet<>(orden.comparador()));
+			}
+		}
+
+		int cantidad() {
+			return porId.size();
+		}
+
+		PaginaResenas pagina(OrdenResenas orden, ResenaEntity desde, int limite) {
+			NavigableSet<ResenaEntity> lista = listas.get(orden);
+			NavigableSet<ResenaEntity> resto = desde != null ? lista.tailSet(desde, false) : lista;
+			List<ResenaEntity> resenas = new ArrayList<>(Math.min(limite, 64));
+			boolean hayMas = false;
+			for (ResenaEntity resena : resto) {
+				ResenaEntity vigente = porId.get(resena.getId());
+				if (vigente == null || orden.comparador().compare(vigente, resena) != 0) {
+					continue;
+				}
+				if (resenas.size() == limite) {
+					hayMas = true;
+					break;
+				}
+				resenas.add(vigente);
+			}
+			String siguiente = hayMas ? codificarCursor(orden, resenas.get(resenas.size() - 1)) : null;
+			return new PaginaResenas(resenas, siguiente);
+		}
+
+		synchronized void ponerSiTieneMasLikes(ResenaEntity resena) {
+			ResenaEntity actual = porId.get(resena.getId());
+			if (actual != null && likes(resena) > likes(actual)) {
+				poner(resena);
+			}
+		}
+
+		// Primero entra a las listas, despues pasa a ser la vigente y al final
+		// sale la anterior: un lector la ve una vez, vieja o nueva. Con la misma
+		// clave en un orden, la lista conserva la anterior (equivalente).
+		synchronized void poner(ResenaEntity resena) {
+			for (NavigableSet<ResenaEntity> lista : listas.values()) {
+				lista.add(resena);
+			}
+			ResenaEntity anterior = porId.put(resena.getId(), resena);
+			if (anterior == null) {
+				return;
+			}
+			for (Map.Entry<OrdenResenas, NavigableSet<ResenaEntity>> lista : listas.entrySet()) {
+				if (lista.getKey().comparador().compare(anterior, resena) != 0) {
+					lista.getValue().remove(anterior);
+				}
+			}
+		}
+
+		private static int likes(ResenaEntity resena) {
+			return resena.getLikes() != null ? resena.getLikes() : 0;
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.affinityteach.cache;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.CambioDocente;
+
+// Estructuras derivadas del cache (indices) que se mantienen al dia con cada
+// publicacion. Se llama bajo el lock de escritura de DocenteCache, asi que las
+// notificaciones llegan de a una y en orden.
+public interface OyenteDocenteCache {
+
+	// Contenido completo nuevo (carga inicial, refresh, primera foto del listener)
+	void alReemplazar(Collection<DocenteEntity> docentes);
+
+	// Solo lo que cambio; AGREGADO y MODIFICADO traen la version nueva
+	void alCambiar(List<CambioDocente> cambios);
+}
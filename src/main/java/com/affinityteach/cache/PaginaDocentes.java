@@ -0,0 +1,9 @@
+package com.affinityteach.cache;
+
+import java.util.List;
+
+import com.affinityteach.model.entity.DocenteEntity;
+
+// Una pagina del listado ordenado por nombre; siguienteCursor es null cuando no hay mas
+public record PaginaDocentes(List<DocenteEntity> docentes, String siguienteCursor) {
+}
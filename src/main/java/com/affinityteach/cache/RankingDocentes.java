@@ -0,0 +1,161 @@
+package com.affinityteach.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.stereotype.Component;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.CambioDocente;
+
+// Ranking por puntaje (desempata cantidad de reseñas), general y por materia,
+// sincronizado con DocenteCache. Son skip lists ordenadas: cada cambio de un
+// docente es quitar y volver a insertar (O(log n)) y el top-K recorre solo los
+// primeros K. Las lecturas no toman lock.
+@Component
+public class RankingDocentes implements OyenteDocenteCache {
+
+	// Mejor primero; sin puntaje al final; el id deja el orden total
+	private static final Comparator<Entrada> MEJOR_PRIMERO = Comparator
+			.comparingDouble(Entrada::puntaje).reversed()
+			.thenComparing(Comparator.comparingLong(Entrada::cantResenas).reversed())
+			.thenComparing(Entrada::id);
+
+	// Se reemplaza entero en cada carga completa; los cambios sueltos lo modifican
+	private volatile Ranking ranking = new Ranking();
+
+	public RankingDocentes(DocenteCache docenteCache) {
+		docenteCache.registrarOyente(this);
+	}
+
+	@Override
+	public void alReemplazar(Collection<DocenteEntity> docentes) {
+		Ranking nuevo = new Ranking();
+		for (DocenteEntity docente : docentes) {
+			nuevo.agregar(docente);
+		}
+		this.ranking = nuevo;
+	}
+
+	@Override
+	public void alCambiar(List<CambioDocente> cambios) {
+		Ranking actual = ranking;
+		for (CambioDocente cambio : cambios) {
+			if (cambio.tipo() == CambioDocente.Tipo.ELIMINADO) {
+				actual.quitar(cambio.id());
+			} else {
+				actual.agregar(cambio.docente());
+			}
+		}
+	}
+
+	// Los mejores limite docentes; con materia, solo los que la dictan
+	// (se compara normalizada: sin acentos ni mayusculas)
+	public List<DocenteEntity> top(String materia, int limite) {
+		if (limite <= 0) {
+			return List.of();
+		}
+		Ranking actual = ranking;
+		NavigableSet<Entrada> orden = materia == null || materia.isBlank()
+				? actual.general
+				: actual.porMateria.get(IndiceBusquedaDocentes.normalizar(materia));
+		if (orden == null) {
+			return List.of();
+		}
+
+		List<DocenteEntity> docentes = new ArrayList<>(Math.min(limite, 64));
+		Iterator<Entrada> it = orden.iterator();
+		while (it.hasNext() && docentes.size() < limite) {
+			Entrada entrada = it.next();
+			// Durante un cambio conviven la entrada vieja y la nueva: vale la
+			// que esta en el mapa
+			Entrada vigente = actual.entradas.get(entrada.id());
+			if (vigente != null && MEJOR_PRIMERO.compare(vigente, entrada) == 0) {
+				docentes.add(vigente.docente());
+			}
+		}
+		return docentes;
+	}
+
+	public int getCantidadRankeados() {
+		return ranking.entradas.size();
+	}
+
+	// Copia de la clave al momento de insertar: para quitarla despues no se
+	// depende de que el docente no haya cambiado
+	private record Entrada(double puntaje, long cantResenas, String id, Set<String> materias, DocenteEntity docente) {
+
+		static Entrada de(DocenteEntity docente) {
+			Set<String> materias = new LinkedHashSet<>();
+			if (docente.getMaterias() != null) {
+				for (String materia : docente.getMaterias()) {
+					String normalizada = IndiceBusquedaDocentes.normalizar(materia);
+					if (!normalizada.isEmpty()) {
+						materias.add(normalizada);
+					}
+				}
+			}
+			return new Entrada(
+					docente.getPuntaje() != null ? docente.getPuntaje() : -1,
+					docente.getCantResenas() != null ? docente.getCantResenas() : 0,
+					docente.getId(), materias, docente);
+		}
+	}
+
+	private static class Ranking {
+		final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+		final NavigableSet<Entrada> general = new ConcurrentSkipListSet<>(MEJOR_PRIMERO);
+		final Map<String, NavigableSet<Entrada>> porMateria = new ConcurrentHashMap<>();
+
+		// Orden: la entrada nueva entra a las listas, despues pasa a ser la
+		// vigente y recien ahi sale la vieja. Un lector concurrente ve al
+		// docente una vez, con la version vieja o con la nueva. Si la clave
+		// no cambio, la lista conserva la entrada vieja (equivalente) y el
+		// docente se toma igual del mapa.
+		void agregar(DocenteEntity docente) {
+			Entrada nueva = Entrada.de(docente);
+			general.add(nueva);
+			for (String materia : nueva.materias()) {
+				porMateria.computeIfAbsent(materia, m -> new ConcurrentSkipListSet<>(MEJOR_PRIMERO)).add(nueva);
+			}
+
+			Entrada anterior = entradas.put(nueva.id(), nueva);
+			if (anterior != null) {
+				quitarEntrada(anterior, nueva);
+			}
+		}
+
+		void quitar(String id) {
+			Entrada anterior = entradas.remove(id);
+			if (anterior != null) {
+				quitarEntrada(anterior, null);
+			}
+		}
+
+		// Con la misma clave, remove() sacaria tambien a la nueva
+		private void quitarEntrada(Entrada anterior, Entrada nueva) {
+			boolean mismaClave = nueva != null && MEJOR_PRIMERO.compare(anterior, nueva) == 0;
+			if (!mismaClave) {
+				general.remove(anterior);
+			}
+			for (String materia : anterior.materias()) {
+				if (mismaClave && nueva.materias().contains(materia)) {
+					continue;
+				}
+				porMateria.computeIfPresent(materia, (m, orden) -> {
+					orden.remove(anterior);
+					return orden.isEmpty() ? null : orden;
+				});
+			}
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.affinityteach.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.affinityteach.model.dto.DocenteResumenDTO;
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.CambioDocente;
+
+import tools.jackson.databind.ObjectMapper;
+
+// JSON ya serializado (y comprimido) de las lecturas mas frecuentes: el
+// listado completo y cada docente. Cada entrada guarda la version del cache
+// con la que se armo y se rehace solo cuando esa version cambia.
+@Component
+public class RespuestasSerializadas implements OyenteDocenteCache {
+	// Por debajo de esto gzip casi no achica y cuesta mas que mandar el JSON
+	private static final int MIN_BYTES_GZIP = 1024;
+
+	private final DocenteCache docenteCache;
+	private final ObjectMapper objectMapper;
+	private final Map<Boolean, Entrada> listados = new ConcurrentHashMap<>();
+	private final Map<String, Entrada> docentes = new ConcurrentHashMap<>();
+
+	public RespuestasSerializadas(DocenteCache docenteCache, ObjectMapper objectMapper) {
+		this.docenteCache = docenteCache;
+		this.objectMapper = objectMapper;
+		docenteCache.registrarOyente(this);
+	}
+
+	// Listado completo ordenado por nombre (resumen = sin reseñas)
+	public Respuesta listado(boolean resumen) {
+		VersionCache version = docenteCache.getVersion();
+		return obtener(listados, resumen, version, () -> {
+			List<DocenteEntity> lista = docenteCache.getDocentes();
+			return serializar(version, resumen ? lista.stream().map(DocenteResumenDTO::desde).toList() : lista);
+		});
+	}
+
+	// Vacio si el docente no esta en el cache
+	public Optional<Respuesta> docente(String id) {
+		Optional<VersionCache> version = docenteCache.getVersion(id);
+		if (version.isEmpty()) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(obtener(docentes, id, version.get(),
+				() -> docenteCache.getDocenteById(id).map(docente -> serializar(version.get(), docente)).orElse(null)));
+	}
+
+	// Las versiones ya invalidan; esto solo libera memoria de lo que no va a volver
+	@Override
+	public void alReemplazar(Collection<DocenteEntity> docentesNuevos) {
+		docentes.clear();
+	}
+
+	@Override
+	public void alCambiar(List<CambioDocente> cambios) {
+		for (CambioDocente cambio : cambios) {
+			if (cambio.tipo() == CambioDocente.Tipo.ELIMINADO) {
+				docentes.remove(cambio.id());
+			}
+		}
+	}
+
+	// Si varios piden la misma version vencida, serializa uno solo. El mapa
+	// solo instala la entrada (un future vacio): serializar y comprimir van
+	// fuera de su lock, que con hilos virtuales dejaria fijo al hilo portador
+	// de cada request que espera. armar puede devolver null (no hay nada).
+	private <K> Respuesta obtener(Map<K, Entrada> entradas, K clave, VersionCache version, Supplier<Respuesta> armar) {
+		Entrada actual = entradas.get(clave);
+		if (actual == null || !actual.version().equals(version)) {
+			Entrada nueva = new Entrada(version, new CompletableFuture<>());
+			actual = entradas.compute(clave,
+					(k, anterior) -> anterior != null && anterior.version().equals(version) ? anterior : nueva);
+			if (actual == nueva) {
+				try {
+					Respuesta respuesta = armar.get();
+					if (respuesta == null) {
+						entradas.remove(clave, nueva);
+					}
+					nueva.respuesta().complete(respuesta);
+				} catch (RuntimeException e) {
+					entradas.remove(clave, nueva);
+					nueva.respuesta().completeExceptionally(e);
+				}
+			}
+		}
+		try {
+			return actual.respuesta().join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException causa ? causa : e;
+		}
+	}
+
+	private Respuesta serializar(VersionCache version, Object cuerpo) {
+		byte[] json = objectMapper.writeValueAsBytes(cuerpo);
+		return new Respuesta(version, json, json.length >= MIN_BYTES_GZIP ? comprimir(json) : null);
+	}
+
+	private static byte[] comprimir(byte[] datos) {
+		ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+			gzip.write(datos);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return salida.toByteArray();
+	}
+
+	private record Entrada(VersionCache version, CompletableFuture<Respuesta> respuesta) {
+	}
+
+	// gzip es null si la respuesta es chica y no vale la pena comprimirla
+	public record Respuesta(VersionCache version, byte[] json, byte[] gzip) {
+	}
+}
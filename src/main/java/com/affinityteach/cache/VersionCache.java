@@ -0,0 +1,12 @@
+package com.affinityteach.cache;
+
+// Version de lo publicado por DocenteCache: numero creciente (para el ETag) y
+// hora de la publicacion (para Last-Modified). La epoca identifica el arranque
+// del proceso, asi un reinicio no repite versiones ya entregadas.
+public record VersionCache(long epoca, long numero, long ultimaModificacion) {
+
+	// Texto unico de esta version, para armar un ETag
+	public String etag() {
+		return Long.toString(epoca, 36) + "." + numero;
+	}
+}
@@ -1,43 +1,130 @@
 package com.affinityteach.controller;
 
+import com.affinityteach.cache.IndiceMaterias.ResultadoFiltro;
+import com.affinityteach.cache.OrdenResenas;
+import com.affinityteach.cache.PaginaDocentes;
+import com.affinityteach.cache.RespuestasSerializadas.Respuesta;
+import com.affinityteach.cache.VersionCache;
 import com.affinityteach.model.dto.DocenteRequestDTO;
+import com.affinityteach.model.dto.DocenteResumenDTO;
 import com.affinityteach.model.dto.ResenaRequestDTO;
+import com.affinityteach.model.dto.ResultadoImportacionDTO;
+import com.affinityteach.model.dto.ResumenImportacionDTO;
 import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.service.ColaEscrituraLlenaException;
 import com.affinityteach.service.DocenteService;
+import com.affinityteach.service.ImportacionStream;
+import com.affinityteach.service.RegistroIdempotencia;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/docentes")
 public class DocenteController {
     
+    public static final String HEADER_SIGUIENTE_CURSOR = "X-Next-Cursor";
+    public static final String HEADER_IDEMPOTENCIA = "Idempotency-Key";
+    private static final String VISTA_COMPLETA = "completa";
+    private static final String VISTA_RESUMEN = "resumen";
+    private static final int LIMITE_RESENAS_DEFAULT = 50;
+    private static final int LIMITE_RESENAS_MAX = 200;
+    private static final int LIMITE_DOCENTES_DEFAULT = 50;
+    private static final int LIMITE_DOCENTES_MAX = 500;
+    private static final int LIMITE_BUSQUEDA_DEFAULT = 20;
+    private static final int LIMITE_BUSQUEDA_MAX = 100;
+    private static final int LIMITE_TOP_DEFAULT = 10;
+    private static final int LIMITE_TOP_MAX = 100;
+    private static final String MODO_TODAS = "todas";
+    private static final String MODO_ALGUNA = "alguna";
+    
     private final DocenteService docenteService;
+    private final ImportacionStream importacionStream;
     
-    public DocenteController(DocenteService docenteService) {
+    public DocenteController(DocenteService docenteService, ImportacionStream importacionStream) {
         this.docenteService = docenteService;
+        this.importacionStream = importacionStream;
     }
     
     // ============ CRUD BÁSICO ============
     
     // 1. Obtener todos los docentes
+    // Con limit (o cursor) se pagina y el cursor siguiente va en X-Next-Cursor;
+    // vista=resumen devuelve solo lo que muestra el listado (sin reseñas)
     @GetMapping
-    public ResponseEntity<List<DocenteEntity>> getAllDocentes() {
-        return ResponseEntity.ok(docenteService.getAllDocentes());
+    public ResponseEntity<?> getAllDocentes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = VISTA_COMPLETA) String vista,
+            WebRequest request) {
+        
+        try {
+            if (!VISTA_COMPLETA.equals(vista) && !VISTA_RESUMEN.equals(vista)) {
+                throw new IllegalArgumentException("La vista debe ser " + VISTA_COMPLETA + " o " + VISTA_RESUMEN);
+            }
+            // Listado completo: bytes ya serializados (la version es la de esos
+            // bytes). Paginado: la version se toma antes de leer; si cambia en
+            // el medio, el cliente recibe datos nuevos con el ETag viejo (a lo
+            // sumo re-descarga). El ETag dice -gz solo si se manda comprimido.
+            boolean completo = limit == null && cursor == null;
+            Respuesta serializada = completo ? docenteService.getListadoSerializado(VISTA_RESUMEN.equals(vista)) : null;
+            VersionCache version = completo ? serializada.version() : docenteService.getVersion();
+            boolean gzip = enviaGzip(aceptaGzip(request), serializada);
+            String etag = crearEtag("l", version, gzip);
+            if (request.checkNotModified(etag, version.ultimaModificacion())) {
+                return noModificado();
+            }
+            
+            if (completo) {
+                return enviar(conVersion(ResponseEntity.ok(), etag, version), serializada, gzip);
+            }
+            
+            int limite = limit != null ? limit : LIMITE_DOCENTES_DEFAULT;
+            validarLimite(limite, LIMITE_DOCENTES_MAX);
+            PaginaDocentes pagina = docenteService.getDocentes(cursor, limite);
+            Object cuerpo = VISTA_RESUMEN.equals(vista)
+                    ? pagina.docentes().stream().map(DocenteResumenDTO::desde).toList()
+                    : pagina.docentes();
+            return conCursor(conVersion(ResponseEntity.ok(), etag, version), pagina.siguienteCursor()).body(cuerpo);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
     }
     
     // 2. Obtener docente por ID (cambiado a String)
     @GetMapping("/{id}")
-    public ResponseEntity<?> getDocenteById(@PathVariable String id) {
-        return docenteService.getDocenteById(id)
-                .<ResponseEntity<?>>map(ResponseEntity::ok)
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(crearErrorResponse("Docente no encontrado con ID: " + id)));
+    public CompletableFuture<ResponseEntity<?>> getDocenteById(@PathVariable String id, WebRequest request) {
+        // En cache: bytes ya serializados; si no, se lee de Firestore
+        Optional<Respuesta> serializada = docenteService.getDocenteSerializado(id);
+        Optional<VersionCache> version = serializada.map(Respuesta::version).or(() -> docenteService.getVersion(id));
+        boolean gzip = enviaGzip(aceptaGzip(request), serializada.orElse(null));
+        String etag = version.map(v -> crearEtag("d", v, gzip)).orElse(null);
+        if (version.isPresent() && request.checkNotModified(etag, version.get().ultimaModificacion())) {
+            return CompletableFuture.completedFuture(noModificado());
+        }
+        if (serializada.isPresent()) {
+            return CompletableFuture.completedFuture(
+                    enviar(conVersion(ResponseEntity.ok(), etag, version.orElse(null)), serializada.get(), gzip));
+        }
+        return docenteService.getDocenteByIdAsync(id)
+                .<ResponseEntity<?>>thenApply(docente -> docente
+                        .<ResponseEntity<?>>map(d -> conVersion(ResponseEntity.ok(), etag, version.orElse(null)).body(d))
+                        .orElse(noEncontrado(id)))
+                .exceptionally(error -> respuestaDeError(error, "Error al obtener docente: "));
     }
     
     // 3. Crear nuevo docente
@@ -56,71 +143,88 @@ public class DocenteController {
     }
     
     // 3.5 Importar lista de docentes
+    // 200 si se crearon todos; 207 con el detalle por item si alguno fallo
     @PostMapping("/importar-docentes")
     public ResponseEntity<?> importarDocentes(@RequestBody List<DocenteRequestDTO> docentes){
     	 try {
-    		 docenteService.importarDocentes(docentes);
-    		 return ResponseEntity.ok("Docentes importados correctamente");
+    		 ResultadoImportacionDTO resultado = docenteService.importarDocentes(docentes);
+    		 return ResponseEntity.status(resultado.getFallidos() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS)
+    				 .body(resultado);
     	 }catch(Exception e){
     		 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
     				 .body(crearErrorResponse("Error al imporarDocentes: "+ e.getMessage()));
     	 }
     }
     
+    // 3.6 Importar docentes en streaming (array JSON o NDJSON)
+    // Se lee y se escribe por tandas; la respuesta trae totales y los errores
+    @PostMapping(value = "/importar-docentes/stream",
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<?> importarDocentesStream(InputStream cuerpo) {
+        try {
+            ResumenImportacionDTO resumen = importacionStream.importar(cuerpo);
+            return ResponseEntity.status(resumen.getFallidos() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS)
+                    .body(resumen);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(crearErrorResponse("Error al importar docentes: " + e.getMessage()));
+        }
+    }
+    
     // 4. Actualizar docente (cambiado a String)
     @PutMapping("/{id}")
-    public ResponseEntity<?> actualizarDocente(
+    public CompletableFuture<ResponseEntity<?>> actualizarDocente(
             @PathVariable String id,
             @RequestBody DocenteRequestDTO docenteRequest) {
         
         try {
             validarDocenteRequest(docenteRequest);
-            return docenteService.actualizarDocente(id, docenteRequest)
-                    .<ResponseEntity<?>>map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
-                            .body(crearErrorResponse("Docente no encontrado con ID: " + id)));
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+            return docenteService.actualizarDocenteAsync(id, docenteRequest)
+                    .<ResponseEntity<?>>thenApply(docente -> docente
+                            .<ResponseEntity<?>>map(ResponseEntity::ok)
+                            .orElse(noEncontrado(id)))
+                    .exceptionally(error -> respuestaDeError(error, "Error al actualizar docente: "));
         } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(crearErrorResponse("Error al actualizar docente: " + e.getMessage()));
+            return CompletableFuture.completedFuture(respuestaDeError(e, "Error al actualizar docente: "));
         }
     }
     
     // 5. Eliminar docente (cambiado a String)
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> eliminarDocente(@PathVariable String id) {
-        try {
-            if (docenteService.eliminarDocente(id)) {
-                return ResponseEntity.ok(crearMensajeResponse("Docente eliminado correctamente"));
-            }
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(crearErrorResponse("Docente no encontrado con ID: " + id));
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(crearErrorResponse("Error al eliminar docente: " + e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> eliminarDocente(@PathVariable String id) {
+        return docenteService.eliminarDocenteAsync(id)
+                .<ResponseEntity<?>>thenApply(eliminado -> eliminado
+                        ? ResponseEntity.ok(crearMensajeResponse("Docente eliminado correctamente"))
+                        : noEncontrado(id))
+                .exceptionally(error -> respuestaDeError(error, "Error al eliminar docente: "));
     }
     
     // ============ OPERACIONES CON RESEÑAS ============
     
     // 6. Agregar reseña a un docente (cambiado a String)
+    // Con Idempotency-Key (o con email) un reintento devuelve el resultado de
+    // la primera presentacion y no escribe otra reseña
     @PostMapping("/{id}/resenas")
-    public ResponseEntity<?> agregarResena(
+    public CompletableFuture<ResponseEntity<?>> agregarResena(
             @PathVariable String id,
-            @RequestBody ResenaRequestDTO resenaRequest) {
+            @RequestBody ResenaRequestDTO resenaRequest,
+            @RequestHeader(value = HEADER_IDEMPOTENCIA, required = false) String claveIdempotencia) {
         
         try {
             validarResenaRequest(resenaRequest);
-            return docenteService.agregarResena(id, resenaRequest)
-                    .<ResponseEntity<?>>map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
-                            .body(crearErrorResponse("Docente no encontrado con ID: " + id)));
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+            if (claveIdempotencia != null && claveIdempotencia.length() > RegistroIdempotencia.MAX_LARGO_CLAVE) {
+                throw new IllegalArgumentException("El header " + HEADER_IDEMPOTENCIA + " admite hasta "
+                        + RegistroIdempotencia.MAX_LARGO_CLAVE + " caracteres");
+            }
+            return docenteService.agregarResenaAsync(id, resenaRequest, claveIdempotencia)
+                    .<ResponseEntity<?>>thenApply(docente -> docente
+                            .<ResponseEntity<?>>map(ResponseEntity::ok)
+                            .orElse(noEncontrado(id)))
+                    .exceptionally(error -> respuestaDeError(error, "Error al agregar reseña: "));
         } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(crearErrorResponse("Error al agregar reseña: " + e.getMessage()));
+            return CompletableFuture.completedFuture(respuestaDeError(e, "Error al agregar reseña: "));
         }
     }
     
@@ -143,26 +247,75 @@ public class DocenteController {
     
     // ============ BÚSQUEDA Y OTROS ============
     
-    // 8. Buscar docentes por nombre
+    // 8. Buscar docentes por nombre o materia (mejores primero)
     @GetMapping("/buscar")
-    public ResponseEntity<List<DocenteEntity>> buscarPorNombre(@RequestParam String nombre) {
+    public ResponseEntity<List<DocenteEntity>> buscarPorNombre(
+            @RequestParam String nombre,
+            @RequestParam(defaultValue = "" + LIMITE_BUSQUEDA_DEFAULT) int limit) {
         try {
-            return ResponseEntity.ok(docenteService.buscarPorNombre(nombre));
+            return ResponseEntity.ok(docenteService.buscarPorNombre(nombre,
+                    Math.max(1, Math.min(limit, LIMITE_BUSQUEDA_MAX))));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Collections.emptyList());
         }
     }
     
+    // 8.5 Ranking de docentes por puntaje (desempata la cantidad de reseñas),
+    // general o de una materia; no recorre ni ordena el listado completo
+    @GetMapping("/top")
+    public ResponseEntity<?> getTop(
+            @RequestParam(required = false) String materia,
+            @RequestParam(defaultValue = "" + LIMITE_TOP_DEFAULT) int limit) {
+        try {
+            validarLimite(limit, LIMITE_TOP_MAX);
+            return ResponseEntity.ok(docenteService.getTop(materia, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+    
+    // 8.6 Filtrar docentes por materias: modo=todas (AND, por defecto) o
+    // alguna (OR). Trae el total, los conteos por materia de los resultados
+    // (facetas) y la pagina; el cursor siguiente va en X-Next-Cursor
+    @GetMapping("/filtrar")
+    public ResponseEntity<?> filtrarPorMaterias(
+            @RequestParam(required = false) List<String> materia,
+            @RequestParam(defaultValue = MODO_TODAS) String modo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + LIMITE_DOCENTES_DEFAULT) int limit) {
+        try {
+            if (!MODO_TODAS.equals(modo) && !MODO_ALGUNA.equals(modo)) {
+                throw new IllegalArgumentException("El modo debe ser " + MODO_TODAS + " o " + MODO_ALGUNA);
+            }
+            validarLimite(limit, LIMITE_DOCENTES_MAX);
+            ResultadoFiltro resultado = docenteService.filtrarPorMaterias(materia, MODO_TODAS.equals(modo), cursor, limit);
+            Map<String, Object> cuerpo = new LinkedHashMap<>();
+            cuerpo.put("total", resultado.total());
+            cuerpo.put("facetas", resultado.facetas());
+            cuerpo.put("docentes", resultado.docentes());
+            return conCursor(ResponseEntity.ok(), resultado.siguienteCursor()).body(cuerpo);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
+        }
+    }
+    
     // 9. Cargar datos iniciales (desde array de DTOs)
+    // Si alguno es invalido no se escribe nada (400). 201 con los docentes si se
+    // crearon todos; si alguna escritura fallo, 207 con el detalle por item
+    // (como importar-docentes): los demas ya quedaron guardados y no hay que
+    // reenviarlos.
     @PostMapping("/cargar-iniciales")
     public ResponseEntity<?> cargarDocentesIniciales(@RequestBody List<DocenteRequestDTO> docentesRequest) {
         try {
             for (DocenteRequestDTO dto : docentesRequest) {
                 validarDocenteRequest(dto);
             }
-            List<DocenteEntity> docentesCreados = docenteService.cargarDocentesIniciales(docentesRequest);
-            return ResponseEntity.status(HttpStatus.CREATED).body(docentesCreados);
+            ResultadoImportacionDTO resultado = docenteService.importarDocentes(docentesRequest);
+            if (resultado.getFallidos() > 0) {
+                return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(resultado);
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(resultado.getDocentesCreados());
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(crearErrorResponse(e.getMessage()));
         } catch (RuntimeException e) {
@@ -171,28 +324,158 @@ public class DocenteController {
         }
     }
     
- // 10. Obtener todas las reseñas de un docente por ID
+    // 10. Obtener las reseñas de un docente por ID (paginadas)
+    // El cursor de la pagina siguiente viaja en el header X-Next-Cursor. Sin
+    // orden salen en el orden de la subcoleccion (fecha, id); con orden=likes,
+    // recientes, mas-estrellas o menos-estrellas, en ese orden
     @GetMapping("/{id}/resenas")
-    public ResponseEntity<?> getResenasByDocenteId(@PathVariable String id) {
+    public CompletableFuture<ResponseEntity<?>> getResenasByDocenteId(
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + LIMITE_RESENAS_DEFAULT) int limit,
+            @RequestParam(required = false) String orden,
+            WebRequest request) {
+        
         try {
-            return docenteService.getResenasByDocenteId(id)
+            validarLimite(limit, LIMITE_RESENAS_MAX);
+            OrdenResenas ordenResenas = orden != null ? OrdenResenas.desdeParametro(orden) : null;
+            // La version del docente cambia con cada reseña y con cada flush de likes
+            Optional<VersionCache> version = docenteService.getVersion(id);
+            String recurso = ordenResenas != null ? "r-" + ordenResenas.getParametro() + "-" : "r";
+            String etag = version.map(v -> crearEtag(recurso, v)).orElse(null);
+            if (version.isPresent() && request.checkNotModified(etag, version.get().ultimaModificacion())) {
+                return CompletableFuture.completedFuture(noModificado());
+            }
+            return (ordenResenas != null
+                            ? docenteService.getResenasOrdenadasAsync(id, ordenResenas, cursor, limit)
+                            : docenteService.getResenasByDocenteIdAsync(id, cursor, limit))
+                    .<ResponseEntity<?>>thenApply(pagina -> pagina
+                            .<ResponseEntity<?>>map(p -> conCursor(conVersion(ResponseEntity.ok(), etag, version.orElse(null)),
+                                    p.siguienteCursor()).body(p.resenas()))
+                            .orElse(noEncontrado(id)))
+                    .exceptionally(error -> respuestaDeError(error, "Error al obtener reseñas: "));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(respuestaDeError(e, "Error al obtener reseñas: "));
+        }
+    }
+    
+    // 10.5 Distribucion de estrellas (histograma 1-5) de un docente
+    @GetMapping("/{id}/distribucion")
+    public ResponseEntity<?> getDistribucion(@PathVariable String id) {
+        try {
+            return docenteService.getDistribucion(id)
                     .<ResponseEntity<?>>map(ResponseEntity::ok)
                     .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(crearErrorResponse("Docente no encontrado con ID: " + id)));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(crearErrorResponse("Error al obtener reseñas: " + e.getMessage()));
+                    .body(crearErrorResponse("Error al obtener distribución: " + e.getMessage()));
         }
     }
     
+    // 11. Migrar reseñas embebidas (formato viejo) a docentes/{id}/resenas
+    @PostMapping("/migrar-resenas")
+    public ResponseEntity<?> migrarResenas() {
+        try {
+            return ResponseEntity.ok(docenteService.migrarResenasASubcoleccion());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(crearErrorResponse("Error al migrar reseñas: " + e.getMessage()));
+        }
+    }
+    
+    // 12. Estado del cache: docentes residentes, paginas de reseñas y memoria estimada
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(docenteService.getCacheStats());
+    }
+    
     // ============ MÉTODOS PRIVADOS DE VALIDACIÓN ============
     
-    private void validarDocenteRequest(DocenteRequestDTO request) {
-        if (request.getNombre() == null || request.getNombre().trim().isEmpty()) {
-            throw new IllegalArgumentException("El nombre del docente es requerido");
+    private void validarLimite(int limit, int maximo) {
+        if (limit < 1 || limit > maximo) {
+            throw new IllegalArgumentException("El limit debe estar entre 1 y " + maximo);
         }
     }
     
+    // ETag fuerte: misma version, mismos bytes. El prefijo separa los recursos.
+    private String crearEtag(String recurso, VersionCache version) {
+        return crearEtag(recurso, version, false);
+    }
+    
+    // La variante comprimida es otra representacion: otro ETag
+    private String crearEtag(String recurso, VersionCache version, boolean gzip) {
+        return "\"" + recurso + version.etag() + (gzip ? "-gz" : "") + "\"";
+    }
+    
+    private boolean aceptaGzip(WebRequest request) {
+        String aceptadas = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return aceptadas != null && aceptadas.contains("gzip");
+    }
+    
+    // Las respuestas chicas no tienen version comprimida
+    private static boolean enviaGzip(boolean aceptaGzip, Respuesta serializada) {
+        return aceptaGzip && serializada != null && serializada.gzip() != null;
+    }
+    
+    // Escribe los bytes tal cual, sin pasar por Jackson; gzip sale de enviaGzip
+    private ResponseEntity<byte[]> enviar(ResponseEntity.BodyBuilder respuesta, Respuesta serializada, boolean gzip) {
+        respuesta.contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serializada.gzip());
+        }
+        return respuesta.body(serializada.json());
+    }
+    
+    private ResponseEntity.BodyBuilder conVersion(ResponseEntity.BodyBuilder respuesta, String etag, VersionCache version) {
+        if (version != null) {
+            respuesta.eTag(etag).lastModified(version.ultimaModificacion());
+        }
+        return respuesta;
+    }
+    
+    // El cliente ya tiene esta version: 304 sin serializar nada (checkNotModified
+    // ya escribio ETag y Last-Modified)
+    private ResponseEntity<?> noModificado() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+    }
+    
+    private ResponseEntity<?> noEncontrado(String id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(crearErrorResponse("Docente no encontrado con ID: " + id));
+    }
+    
+    // Errores de los endpoints asincronicos: lo que falla dentro de la cadena
+    // llega envuelto en CompletionException
+    private ResponseEntity<?> respuestaDeError(Throwable error, String contexto) {
+        Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (causa instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(crearErrorResponse(causa.getMessage()));
+        }
+        if (causa instanceof ColaEscrituraLlenaException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(crearErrorResponse(causa.getMessage()));
+        }
+        if (causa instanceof TimeoutException) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(crearErrorResponse(contexto + "tiempo de espera agotado"));
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(crearErrorResponse(contexto + causa.getMessage()));
+    }
+    
+    private ResponseEntity.BodyBuilder conCursor(ResponseEntity.BodyBuilder respuesta, String siguienteCursor) {
+        if (siguienteCursor != null) {
+            respuesta.header(HEADER_SIGUIENTE_CURSOR, siguienteCursor);
+        }
+        return respuesta;
+    }
+    
+    private void validarDocenteRequest(DocenteRequestDTO request) {
+        DocenteService.validarDocenteRequest(request);
+    }
+    
     private void validarResenaRequest(ResenaRequestDTO request) {
         if (request.getEstudiante() == null || request.getEstudiante().trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre del estudiante es requerido");
@@ -0,0 +1,84 @@
+package com.affinityteach.controller;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Tiempo de respuesta de una muestra de requests (y de todos los lentos), en
+// lugar del trazado DEBUG de Spring en cada uno. Sale con metodo, uri, status
+// y ms como campos, que en el formato JSON se pueden filtrar.
+@Component
+public class MuestreoTiemposFilter extends OncePerRequestFilter {
+    
+    private static final Logger log = LoggerFactory.getLogger("com.affinityteach.tiempos");
+    
+    private final double muestreo;
+    private final long lentoMs;
+    
+    public MuestreoTiemposFilter(
+            @Value("${affinityteach.log.tiempos.muestreo:0.01}") double muestreo,
+            @Value("${affinityteach.log.tiempos.lento-ms:1000}") long lentoMs) {
+        this.muestreo = muestreo;
+        this.lentoMs = lentoMs;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Endpoints que devuelven CompletableFuture: la respuesta termina despues
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        registrar(request, response, inicio);
+                    }
+                    
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+                    
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+                    
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                registrar(request, response, inicio);
+            }
+        }
+    }
+    
+    private void registrar(HttpServletRequest request, HttpServletResponse response, long inicio) {
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+        boolean lento = ms >= lentoMs;
+        if (!lento && ThreadLocalRandom.current().nextDouble() >= muestreo) {
+            return;
+        }
+        log.atLevel(lento ? Level.WARN : Level.INFO)
+                .addKeyValue("metodo", request.getMethod())
+                .addKeyValue("uri", request.getRequestURI())
+                .addKeyValue("status", response.getStatus())
+                .addKeyValue("ms", ms)
+                .log("{} {} -> {} en {} ms", request.getMethod(), request.getRequestURI(), response.getStatus(), ms);
+    }
+}
@@ -1,4 +1,5 @@
 package com.affinityteach.corsconfig;
+import com.affinityteach.controller.DocenteController;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -21,6 +22,7 @@ public class CorsConfig {
                                 "https://*.vercel.app")
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders(DocenteController.HEADER_SIGUIENTE_CURSOR)
                         .allowCredentials(true);
             }
         };
@@ -7,6 +7,7 @@ import java.io.InputStream;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.firestore.Firestore;
@@ -14,7 +15,9 @@ import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.cloud.FirestoreClient;
 
+// Con el perfil "memory" no se conecta a Firebase (ver InMemoryDocenteRepository)
 @Configuration
+@Profile("!memory")
 public class FirebaseInitializer {
 	
 	@Bean
@@ -0,0 +1,55 @@
+package com.affinityteach.model.dto;
+
+import java.util.List;
+
+import com.affinityteach.model.entity.DocenteEntity;
+
+// Lo que muestra el listado de docentes: sin reseñas ni agregados internos
+public class DocenteResumenDTO {
+	private String id;
+
+	private String nombre;
+
+	private List<String> materias;
+
+	private Double puntaje;
+
+	private Integer cantResenas;
+
+	public DocenteResumenDTO(String id, String nombre, List<String> materias, Double puntaje, Integer cantResenas) {
+		this.id = id;
+		this.nombre = nombre;
+		this.materias = materias;
+		this.puntaje = puntaje;
+		this.cantResenas = cantResenas;
+	}
+
+	public DocenteResumenDTO() {
+	}
+
+	public static DocenteResumenDTO desde(DocenteEntity docente) {
+		return new DocenteResumenDTO(docente.getId(), docente.getNombre(), docente.getMaterias(),
+				docente.getPuntaje(), docente.getCantResenas());
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public List<String> getMaterias() {
+		return materias;
+	}
+
+	public Double getPuntaje() {
+		return puntaje;
+	}
+
+	public Integer getCantResenas() {
+		return cantResenas;
+	}
+
+}
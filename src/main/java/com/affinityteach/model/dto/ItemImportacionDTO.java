@@ -0,0 +1,46 @@
+package com.affinityteach.model.dto;
+
+// Resultado de un docente dentro de una importacion (en el orden recibido)
+public class ItemImportacionDTO {
+	private int indice;
+
+	private String id;
+
+	private String nombre;
+
+	private boolean creado;
+
+	private String error;
+
+	public ItemImportacionDTO(int indice, String id, String nombre, boolean creado, String error) {
+		this.indice = indice;
+		this.id = id;
+		this.nombre = nombre;
+		this.creado = creado;
+		this.error = error;
+	}
+
+	public ItemImportacionDTO() {
+	}
+
+	public int getIndice() {
+		return indice;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public boolean isCreado() {
+		return creado;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.affinityteach.model.dto;
+
+import java.util.List;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public class ResultadoImportacionDTO {
+	private int creados;
+
+	private int fallidos;
+
+	private List<ItemImportacionDTO> items;
+
+	// Los docentes que quedaron guardados (no se serializa)
+	@JsonIgnore
+	private List<DocenteEntity> docentesCreados;
+
+	public ResultadoImportacionDTO(List<ItemImportacionDTO> items, List<DocenteEntity> docentesCreados) {
+		this.items = items;
+		this.docentesCreados = docentesCreados;
+		this.creados = docentesCreados.size();
+		this.fallidos = items.size() - docentesCreados.size();
+	}
+
+	public int getCreados() {
+		return creados;
+	}
+
+	public int getFallidos() {
+		return fallidos;
+	}
+
+	public List<ItemImportacionDTO> getItems() {
+		return items;
+	}
+
+	public List<DocenteEntity> getDocentesCreados() {
+		return docentesCreados;
+	}
+
+}
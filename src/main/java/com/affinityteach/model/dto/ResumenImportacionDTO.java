@@ -0,0 +1,50 @@
+package com.affinityteach.model.dto;
+
+import java.util.List;
+
+// Resultado de una importacion en streaming: solo totales y los items con
+// error (hasta un maximo), para no crecer con el tamaño del archivo
+public class ResumenImportacionDTO {
+	private long procesados;
+
+	private long creados;
+
+	private long fallidos;
+
+	private List<ItemImportacionDTO> errores;
+
+	private long erroresOmitidos;
+
+	public ResumenImportacionDTO(long procesados, long creados, long fallidos, List<ItemImportacionDTO> errores,
+			long erroresOmitidos) {
+		this.procesados = procesados;
+		this.creados = creados;
+		this.fallidos = fallidos;
+		this.errores = errores;
+		this.erroresOmitidos = erroresOmitidos;
+	}
+
+	public ResumenImportacionDTO() {
+	}
+
+	public long getProcesados() {
+		return procesados;
+	}
+
+	public long getCreados() {
+		return creados;
+	}
+
+	public long getFallidos() {
+		return fallidos;
+	}
+
+	public List<ItemImportacionDTO> getErrores() {
+		return errores;
+	}
+
+	public long getErroresOmitidos() {
+		return erroresOmitidos;
+	}
+
+}
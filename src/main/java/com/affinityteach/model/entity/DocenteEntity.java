@@ -1,7 +1,9 @@
 package com.affinityteach.model.entity;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class DocenteEntity {
 	private String id;
@@ -10,6 +12,11 @@ public class DocenteEntity {
 	private Double puntaje;
 	private Integer cantResenas;
 
+	// Agregados que se mantienen con incrementos atomicos al agregar reseñas:
+	// suma de estrellas y cantidad de reseñas por estrella ("1".."5")
+	private Long sumaEstrellas;
+	private Map<String, Long> histograma;
+
 	private List<String> materias = new ArrayList<>();
 
 	private List<ResenaEntity> resenas = new ArrayList<>();
@@ -27,6 +34,31 @@ public class DocenteEntity {
 	public DocenteEntity() {
 	}
 
+	// Copia (las listas y el histograma no se comparten con el original)
+	public DocenteEntity(DocenteEntity otro) {
+		this(otro.id, otro.nombre, otro.puntaje, otro.cantResenas,
+				otro.materias != null ? new ArrayList<>(otro.materias) : null,
+				otro.resenas != null ? new ArrayList<>(otro.resenas) : null);
+		this.sumaEstrellas = otro.sumaEstrellas;
+		this.histograma = otro.histograma != null ? new LinkedHashMap<>(otro.histograma) : null;
+	}
+
+	public static Map<String, Long> histogramaVacio() {
+		Map<String, Long> histograma = new LinkedHashMap<>();
+		for (int estrellas = 1; estrellas <= 5; estrellas++) {
+			histograma.put(String.valueOf(estrellas), 0L);
+		}
+		return histograma;
+	}
+
+	// Promedio redondeado a 1 decimal
+	public static double calcularPuntaje(long sumaEstrellas, long cantResenas) {
+		if (cantResenas <= 0) {
+			return 0.0;
+		}
+		return Math.round((double) sumaEstrellas / cantResenas * 10.0) / 10.0;
+	}
+
 	public String getId() {
 		return id;
 	}
@@ -59,6 +91,22 @@ public class DocenteEntity {
 		this.cantResenas = cantResenas;
 	}
 
+	public Long getSumaEstrellas() {
+		return sumaEstrellas;
+	}
+
+	public void setSumaEstrellas(Long sumaEstrellas) {
+		this.sumaEstrellas = sumaEstrellas;
+	}
+
+	public Map<String, Long> getHistograma() {
+		return histograma;
+	}
+
+	public void setHistograma(Map<String, Long> histograma) {
+		this.histograma = histograma;
+	}
+
 	public List<String> getMaterias() {
 		return materias;
 	}
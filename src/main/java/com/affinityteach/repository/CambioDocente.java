@@ -0,0 +1,23 @@
+package com.affinityteach.repository;
+
+import com.affinityteach.model.entity.DocenteEntity;
+
+// Cambio puntual sobre la coleccion de docentes (docente es null en ELIMINADO)
+public record CambioDocente(Tipo tipo, String id, DocenteEntity docente) {
+
+	public enum Tipo {
+		AGREGADO, MODIFICADO, ELIMINADO
+	}
+
+	public static CambioDocente agregado(DocenteEntity docente) {
+		return new CambioDocente(Tipo.AGREGADO, docente.getId(), docente);
+	}
+
+	public static CambioDocente modificado(DocenteEntity docente) {
+		return new CambioDocente(Tipo.MODIFICADO, docente.getId(), docente);
+	}
+
+	public static CambioDocente eliminado(String id) {
+		return new CambioDocente(Tipo.ELIMINADO, id, null);
+	}
+}
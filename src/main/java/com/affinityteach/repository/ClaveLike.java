@@ -0,0 +1,5 @@
+package com.affinityteach.repository;
+
+// Identifica la reseña docentes/{docenteId}/resenas/{resenaId}
+public record ClaveLike(String docenteId, String resenaId) {
+}
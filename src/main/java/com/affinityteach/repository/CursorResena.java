@@ -0,0 +1,48 @@
+package com.affinityteach.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+
+import com.affinityteach.model.entity.ResenaEntity;
+import com.google.cloud.Timestamp;
+
+// Posicion de una reseña dentro del orden (fecha, id). Viaja al cliente como
+// un string opaco en base64url.
+public record CursorResena(Timestamp fecha, String id) implements Comparable<CursorResena> {
+
+	private static final Comparator<CursorResena> ORDEN = Comparator
+			.comparing(CursorResena::fecha, Comparator.nullsFirst(Comparator.<Timestamp>naturalOrder()))
+			.thenComparing(CursorResena::id);
+
+	public static CursorResena de(ResenaEntity resena) {
+		return new CursorResena(resena.getFecha(), resena.getId());
+	}
+
+	public String codificar() {
+		String crudo = (fecha != null ? fecha.getSeconds() + "." + fecha.getNanos() : "") + ":" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(crudo.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static CursorResena decodificar(String cursor) {
+		try {
+			String crudo = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separador = crudo.indexOf(':');
+			String fechaTexto = crudo.substring(0, separador);
+			Timestamp fecha = null;
+			if (!fechaTexto.isEmpty()) {
+				int punto = fechaTexto.indexOf('.');
+				fecha = Timestamp.ofTimeSecondsAndNanos(Long.parseLong(fechaTexto.substring(0, punto)),
+						Integer.parseInt(fechaTexto.substring(punto + 1)));
+			}
+			return new CursorResena(fecha, crudo.substring(separador + 1));
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Cursor invalido: " + cursor);
+		}
+	}
+
+	@Override
+	public int compareTo(CursorResena otro) {
+		return ORDEN.compare(this, otro);
+	}
+}
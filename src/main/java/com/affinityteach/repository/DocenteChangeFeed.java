@@ -0,0 +1,27 @@
+package com.affinityteach.repository;
+
+import java.util.List;
+
+import com.affinityteach.model.entity.DocenteEntity;
+
+// Fuente de cambios de la coleccion de docentes. Abstrae el snapshot listener
+// de Firestore para poder probar la sincronizacion con una fuente en memoria.
+public interface DocenteChangeFeed {
+
+	Suscripcion suscribir(Oyente oyente);
+
+	interface Oyente {
+		// Primera foto completa de la coleccion (y tras cada re-suscripcion)
+		void alCargar(List<DocenteEntity> docentes);
+
+		// Solo los documentos agregados, modificados o eliminados
+		void alCambiar(List<CambioDocente> cambios);
+
+		// El listener quedo cortado; hay que volver a suscribirse
+		void alFallar(Throwable error);
+	}
+
+	interface Suscripcion {
+		void cancelar();
+	}
+}
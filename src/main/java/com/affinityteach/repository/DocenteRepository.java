@@ -0,0 +1,100 @@
+package com.affinityteach.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.model.entity.ResenaEntity;
+
+// Acceso a la coleccion "docentes". Hay una implementacion sobre Firestore y
+// otra en memoria (perfil "memory") para medir y probar sin red.
+public interface DocenteRepository extends DocenteChangeFeed {
+
+	String COLECCION_DOCENTES = "docentes";
+	String SUBCOLECCION_RESENAS = "resenas";
+
+	// Donde corren las variantes asincronicas que no tienen API propia: cada
+	// llamada bloqueante ocupa un hilo virtual, no uno del pool de requests
+	Executor EJECUTOR_BLOQUEANTE = Executors.newVirtualThreadPerTaskExecutor();
+
+	List<DocenteEntity> findAll();
+
+	Optional<DocenteEntity> findById(String id);
+
+	// Genera un id nuevo sin escribir nada
+	String nuevoId();
+
+	// Crea o sobreescribe el documento completo
+	void save(DocenteEntity docente);
+
+	// Crea muchos docentes con escrituras en paralelo (BulkWriter en Firestore).
+	// No es atomico: devuelve los que fallaron (id -> motivo); el resto quedo guardado.
+	Map<String, String> guardarTodos(List<DocenteEntity> docentes);
+
+	// Actualiza solo los campos indicados; el documento tiene que existir
+	void update(String id, Map<String, Object> campos);
+
+	// Borra el docente junto con su subcoleccion de reseñas
+	void deleteById(String id);
+
+	// ============ RESEÑAS (docentes/{id}/resenas) ============
+
+	// Pagina ordenada por (fecha, id); cursor null es la primera pagina
+	PaginaResenas findResenas(String docenteId, CursorResena cursor, int limite);
+
+	Optional<ResenaEntity> findResena(String docenteId, String resenaId);
+
+	// Escribe reseñas nuevas (de uno o varios docentes) en un solo lote
+	// atomico, sin leer nada: cada reseña va a su subcoleccion y cada docente
+	// recibe un unico update con los incrementos sumados de cantResenas,
+	// sumaEstrellas e histograma.N. El puntaje no se escribe: se deriva de
+	// sumaEstrellas y cantResenas al leer.
+	// Las reseñas se crean, no se sobreescriben: si ya hay una con el mismo id
+	// esa falla con ResenaExistenteException y no suma agregados.
+	// Si el lote falla (por ejemplo, un docente borrado) cada reseña se
+	// reintenta en su propio lote. Devuelve las que no se pudieron escribir
+	// (id de la reseña -> error); el resto quedo guardado.
+	Map<String, RuntimeException> agregarResenas(List<ResenaNueva> resenas);
+
+	// Cuenta las reseñas por estrella recorriendo la subcoleccion. Solo para
+	// completar los agregados de documentos viejos.
+	Map<String, Long> histogramaDeResenas(String docenteId);
+
+	// Aplica incrementos atomicos de likes (a nivel de campo) en lotes. Los de reseñas que ya no
+	// existen se descartan; devuelve los que fallaron por otro motivo para
+	// reintentarlos mas tarde.
+	Map<ClaveLike, Long> incrementarLikes(Map<ClaveLike, Long> incrementos);
+
+	// Mueve el array embebido "resenas" (formato viejo) a la subcoleccion, lo
+	// borra del documento y actualiza camposDocente en el mismo ultimo lote.
+	// Es idempotente: se puede reintentar si falla a mitad.
+	void migrarResenasEmbebidas(String docenteId, List<ResenaEntity> resenas, Map<String, Object> camposDocente);
+
+	// ============ VARIANTES ASINCRONICAS ============
+	// Por defecto envuelven la version bloqueante; Firestore las implementa
+	// encadenando sus ApiFuture sin ocupar ningun hilo mientras espera la red.
+
+	default CompletableFuture<Optional<DocenteEntity>> findByIdAsync(String id) {
+		return CompletableFuture.supplyAsync(() -> findById(id), EJECUTOR_BLOQUEANTE);
+	}
+
+	default CompletableFuture<Void> updateAsync(String id, Map<String, Object> campos) {
+		return CompletableFuture.runAsync(() -> update(id, campos), EJECUTOR_BLOQUEANTE);
+	}
+
+	default CompletableFuture<Void> deleteByIdAsync(String id) {
+		return CompletableFuture.runAsync(() -> deleteById(id), EJECUTOR_BLOQUEANTE);
+	}
+
+	default CompletableFuture<PaginaResenas> findResenasAsync(String docenteId, CursorResena cursor, int limite) {
+		return CompletableFuture.supplyAsync(() -> findResenas(docenteId, cursor, limite), EJECUTOR_BLOQUEANTE);
+	}
+
+	default CompletableFuture<Map<String, RuntimeException>> agregarResenasAsync(List<ResenaNueva> resenas) {
+		return CompletableFuture.supplyAsync(() -> agregarResenas(resenas), EJECUTOR_BLOQUEANTE);
+	}
+}
@@ -0,0 +1,505 @@
+package com.affinityteach.repository;
+
+import static com.affinityteach.repository.MetricasFirestore.Operacion.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.model.entity.ResenaEntity;
+import com.affinityteach.repository.MetricasFirestore.Operacion;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.BulkWriterOptions;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Repository
+@Profile("!memory")
+public class FirestoreDocenteRepository implements DocenteRepository {
+	// Firestore admite hasta 500 operaciones por lote
+	private static final int MAX_OPERACIONES_LOTE = 450;
+	// Ritmo del BulkWriter: arranca en 500 ops/s y sube solo hasta este tope
+	private static final int OPS_POR_SEGUNDO_INICIAL = 500;
+	private static final int OPS_POR_SEGUNDO_MAX = 2000;
+	private static final int MAX_REINTENTOS = 5;
+
+	private final Firestore firestore;
+	private final CollectionReference docentesCollection;
+	private final MetricasFirestore metricas;
+
+	public FirestoreDocenteRepository(Firestore firestore, MeterRegistry meterRegistry) {
+		this.firestore = firestore;
+		this.docentesCollection = firestore.collection(COLECCION_DOCENTES);
+		this.metricas = new MetricasFirestore(meterRegistry);
+	}
+
+	@Override
+	public List<DocenteEntity> findAll() {
+		return aEntidades(FIND_ALL, esperar(FIND_ALL, docentesCollection.get(), "Error obteniendo docentes de Firestore"));
+	}
+
+	@Override
+	public Optional<DocenteEntity> findById(String id) {
+		return aOptional(esperar(FIND_BY_ID, docentesCollection.document(id).get(), "Error obteniendo docente de Firestore"));
+	}
+
+	@Override
+	public CompletableFuture<Optional<DocenteEntity>> findByIdAsync(String id) {
+		return aCompletable(FIND_BY_ID, docentesCollection.document(id).get(), "Error obteniendo docente de Firestore")
+				.thenApply(this::aOptional);
+	}
+
+	@Override
+	public String nuevoId() {
+		return docentesCollection.document().getId();
+	}
+
+	@Override
+	public void save(DocenteEntity docente) {
+		esperar(SAVE, docentesCollection.document(docente.getId()).set(docente), "Error guardando docente en Firestore");
+	}
+
+	@Override
+	public Map<String, String> guardarTodos(List<DocenteEntity> docentes) {
+		Timer.Sample muestra = metricas.iniciar();
+		BulkWriter writer = firestore.bulkWriter(BulkWriterOptions.builder()
+				.setInitialOpsPerSecond(OPS_POR_SEGUNDO_INICIAL)
+				.setMaxOpsPerSecond(OPS_POR_SEGUNDO_MAX)
+				.build());
+		// Lo rechazado por carga se reintenta (con backoff del propio BulkWriter)
+		writer.addWriteErrorListener(error -> error.getFailedAttempts() < MAX_REINTENTOS
+				&& esReintentable(error.getStatus().getCode()));
+
+		Map<String, ApiFuture<WriteResult>> escrituras = new LinkedHashMap<>();
+		for (DocenteEntity docente : docentes) {
+			escrituras.put(docente.getId(), writer.set(docentesCollection.document(docente.getId()), docente));
+		}
+
+		Map<String, String> fallidos = new LinkedHashMap<>();
+		try {
+			writer.close();
+			for (Map.Entry<String, ApiFuture<WriteResult>> escritura : escrituras.entrySet()) {
+				try {
+					escritura.getValue().get();
+				} catch (ExecutionException e) {
+					fallidos.put(escritura.getKey(), e.getCause().getMessage());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			metricas.registrar(muestra, GUARDAR_TODOS, e);
+			throw new RuntimeException("Error guardando docentes en Firestore", e);
+		} catch (ExecutionException e) {
+			metricas.registrar(muestra, GUARDAR_TODOS, e);
+			throw new RuntimeException("Error guardando docentes en Firestore", e);
+		}
+		metricas.registrar(muestra, GUARDAR_TODOS, null);
+		metricas.documentos(GUARDAR_TODOS, docentes.size() - fallidos.size());
+		return fallidos;
+	}
+
+	@Override
+	public void update(String id, Map<String, Object> campos) {
+		esperar(UPDATE, docentesCollection.document(id).update(campos), "Error actualizando docente en Firestore");
+	}
+
+	@Override
+	public CompletableFuture<Void> updateAsync(String id, Map<String, Object> campos) {
+		return aCompletable(UPDATE, docentesCollection.document(id).update(campos),
+				"Error actualizando docente en Firestore")
+				.thenApply(resultado -> null);
+	}
+
+	@Override
+	public void deleteById(String id) {
+		esperar(DELETE_BY_ID, firestore.recursiveDelete(docentesCollection.document(id)),
+				"Error eliminando docente en Firestore");
+	}
+
+	@Override
+	public CompletableFuture<Void> deleteByIdAsync(String id) {
+		return aCompletable(DELETE_BY_ID, firestore.recursiveDelete(docentesCollection.document(id)),
+				"Error eliminando docente en Firestore");
+	}
+
+	@Override
+	public PaginaResenas findResenas(String docenteId, CursorResena cursor, int limite) {
+		QuerySnapshot snapshot = esperar(FIND_RESENAS, consultaResenas(docenteId, cursor, limite).get(),
+				"Error obteniendo reseñas de docente desde Firestore");
+		return aPagina(snapshot, limite);
+	}
+
+	@Override
+	public CompletableFuture<PaginaResenas> findResenasAsync(String docenteId, CursorResena cursor, int limite) {
+		return aCompletable(FIND_RESENAS, consultaResenas(docenteId, cursor, limite).get(),
+				"Error obteniendo reseñas de docente desde Firestore")
+				.thenApply(snapshot -> aPagina(snapshot, limite));
+	}
+
+	@Override
+	public Optional<ResenaEntity> findResena(String docenteId, String resenaId) {
+		DocumentSnapshot doc = esperar(FIND_RESENA, resenasDe(docenteId).document(resenaId).get(),
+				"Error obteniendo reseña desde Firestore");
+		if (!doc.exists()) {
+			return Optional.empty();
+		}
+		ResenaEntity resena = doc.toObject(ResenaEntity.class);
+		if (resena != null) {
+			resena.setId(doc.getId());
+		}
+		return Optional.ofNullable(resena);
+	}
+
+	@Override
+	public Map<String, RuntimeException> agregarResenas(List<ResenaNueva> resenas) {
+		return agregarResenasAsync(resenas).join();
+	}
+
+	@Override
+	public CompletableFuture<Map<String, RuntimeException>> agregarResenasAsync(List<ResenaNueva> resenas) {
+		return aCompletable(AGREGAR_RESENAS, loteResenas(resenas).commit(),
+				"Error agregando reseña en Firestore")
+				.thenApply(resultados -> Map.<String, RuntimeException>of())
+				// Un solo docente borrado hace fallar el lote entero: se reintenta
+				// cada reseña en su propio lote para aislar las que fallan
+				.exceptionallyCompose(error -> resenas.size() == 1
+						? CompletableFuture.completedFuture(Map.of(resenas.get(0).resena().getId(), causa(error)))
+						: agregarResenasDeAUna(resenas));
+	}
+
+	@Override
+	public Map<String, Long> histogramaDeResenas(String docenteId) {
+		QuerySnapshot snapshot = esperar(HISTOGRAMA_DE_RESENAS, resenasDe(docenteId).select("estrellas").get(),
+				"Error obteniendo reseñas de docente desde Firestore");
+		metricas.documentos(HISTOGRAMA_DE_RESENAS, snapshot.size());
+		Map<String, Long> histograma = DocenteEntity.histogramaVacio();
+		for (DocumentSnapshot doc : snapshot.getDocuments()) {
+			Long estrellas = doc.getLong("estrellas");
+			if (estrellas != null) {
+				histograma.computeIfPresent(String.valueOf(estrellas), (clave, cant) -> cant + 1);
+			}
+		}
+		return histograma;
+	}
+
+	@Override
+	public Map<ClaveLike, Long> incrementarLikes(Map<ClaveLike, Long> incrementos) {
+		Map<ClaveLike, Long> fallidos = new HashMap<>();
+		List<Map.Entry<ClaveLike, Long>> pendientes = new ArrayList<>(incrementos.entrySet());
+
+		for (int desde = 0; desde < pendientes.size(); desde += MAX_OPERACIONES_LOTE) {
+			List<Map.Entry<ClaveLike, Long>> lote = pendientes.subList(desde,
+					Math.min(desde + MAX_OPERACIONES_LOTE, pendientes.size()));
+			WriteBatch batch = firestore.batch();
+			for (Map.Entry<ClaveLike, Long> incremento : lote) {
+				batch.update(resenaRef(incremento.getKey()), "likes", FieldValue.increment(incremento.getValue()));
+			}
+			Timer.Sample muestra = metricas.iniciar();
+			try {
+				batch.commit().get();
+				metricas.registrar(muestra, INCREMENTAR_LIKES, null);
+				metricas.documentos(INCREMENTAR_LIKES, lote.size());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				metricas.registrar(muestra, INCREMENTAR_LIKES, e);
+				lote.forEach(incremento -> fallidos.put(incremento.getKey(), incremento.getValue()));
+			} catch (ExecutionException e) {
+				metricas.registrar(muestra, INCREMENTAR_LIKES, e);
+				// Un solo documento borrado hace fallar el lote entero: se aplican
+				// de a uno para aislar los que no existen
+				for (Map.Entry<ClaveLike, Long> incremento : lote) {
+					try {
+						resenaRef(incremento.getKey()).update("likes", FieldValue.increment(incremento.getValue())).get();
+					} catch (InterruptedException ie) {
+						Thread.currentThread().interrupt();
+						fallidos.put(incremento.getKey(), incremento.getValue());
+					} catch (ExecutionException ee) {
+						if (!esNoEncontrado(ee.getCause())) {
+							fallidos.put(incremento.getKey(), incremento.getValue());
+						}
+					}
+				}
+			}
+		}
+		return fallidos;
+	}
+
+	@Override
+	public void migrarResenasEmbebidas(String docenteId, List<ResenaEntity> resenas, Map<String, Object> camposDocente) {
+		DocumentReference docenteRef = docentesCollection.document(docenteId);
+		int desde = 0;
+		do {
+			int hasta = Math.min(desde + MAX_OPERACIONES_LOTE, resenas.size());
+			WriteBatch batch = firestore.batch();
+			for (ResenaEntity resena : resenas.subList(desde, hasta)) {
+				batch.set(resenasDe(docenteId).document(resena.getId()), resena);
+			}
+			// El array se borra en el ultimo lote, cuando ya esta todo copiado
+			if (hasta == resenas.size()) {
+				Map<String, Object> campos = new HashMap<>(camposDocente);
+				campos.put("resenas", FieldValue.delete());
+				batch.update(docenteRef, campos);
+			}
+			esperar(MIGRAR_RESENAS_EMBEBIDAS, batch.commit(), "Error migrando reseñas en Firestore");
+			metricas.documentos(MIGRAR_RESENAS_EMBEBIDAS, hasta - desde + (hasta == resenas.size() ? 1 : 0));
+			desde = hasta;
+		} while (desde < resenas.size());
+	}
+
+	@Override
+	public Suscripcion suscribir(Oyente oyente) {
+		// El primer evento del listener trae la coleccion entera como ADDED
+		boolean[] primerEvento = { true };
+
+		ListenerRegistration registro = docentesCollection.addSnapshotListener((snapshot, error) -> {
+			if (error != null) {
+				oyente.alFallar(error);
+				return;
+			}
+			if (snapshot == null) {
+				return;
+			}
+
+			if (primerEvento[0]) {
+				primerEvento[0] = false;
+				oyente.alCargar(aEntidades(LISTENER, snapshot));
+				return;
+			}
+			metricas.documentos(LISTENER, snapshot.getDocumentChanges().size());
+
+			List<CambioDocente> cambios = new ArrayList<>();
+			for (DocumentChange cambio : snapshot.getDocumentChanges()) {
+				DocumentSnapshot doc = cambio.getDocument();
+				switch (cambio.getType()) {
+				case REMOVED -> cambios.add(CambioDocente.eliminado(doc.getId()));
+				case ADDED, MODIFIED -> {
+					DocenteEntity docente = aEntidad(doc);
+					if (docente != null) {
+						cambios.add(cambio.getType() == DocumentChange.Type.ADDED
+								? CambioDocente.agregado(docente)
+								: CambioDocente.modificado(docente));
+					}
+				}
+				}
+			}
+			if (!cambios.isEmpty()) {
+				oyente.alCambiar(cambios);
+			}
+		});
+
+		return registro::remove;
+	}
+
+	// ============ MÉTODOS PRIVADOS ============
+
+	private CollectionReference resenasDe(String docenteId) {
+		return docentesCollection.document(docenteId).collection(SUBCOLECCION_RESENAS);
+	}
+
+	private DocumentReference resenaRef(ClaveLike clave) {
+		return resenasDe(clave.docenteId()).document(clave.resenaId());
+	}
+
+	private static boolean esReintentable(Status.Code codigo) {
+		return codigo == Status.Code.RESOURCE_EXHAUSTED || codigo == Status.Code.UNAVAILABLE
+				|| codigo == Status.Code.ABORTED || codigo == Status.Code.DEADLINE_EXCEEDED;
+	}
+
+	private static boolean esNoEncontrado(Throwable error) {
+		if (error instanceof ApiException apiException) {
+			return apiException.getStatusCode().getCode() == StatusCode.Code.NOT_FOUND;
+		}
+		if (error instanceof FirestoreException firestoreException) {
+			return firestoreException.getStatus() != null
+					&& firestoreException.getStatus().getCode() == Status.Code.NOT_FOUND;
+		}
+		return false;
+	}
+
+	private static boolean esYaExistente(Throwable error) {
+		if (error instanceof ApiException apiException) {
+			return apiException.getStatusCode().getCode() == StatusCode.Code.ALREADY_EXISTS;
+		}
+		if (error instanceof FirestoreException firestoreException) {
+			return firestoreException.getStatus() != null
+					&& firestoreException.getStatus().getCode() == Status.Code.ALREADY_EXISTS;
+		}
+		return false;
+	}
+
+	private Query consultaResenas(String docenteId, CursorResena cursor, int limite) {
+		Query query = resenasDe(docenteId)
+				.orderBy("fecha")
+				.orderBy(FieldPath.documentId())
+				.limit(limite + 1);
+		if (cursor != null) {
+			query = query.startAfter(cursor.fecha(), cursor.id());
+		}
+		return query;
+	}
+
+	private PaginaResenas aPagina(QuerySnapshot snapshot, int limite) {
+		metricas.documentos(FIND_RESENAS, snapshot.size());
+		List<ResenaEntity> resenas = new ArrayList<>(limite);
+		for (DocumentSnapshot doc : snapshot.getDocuments()) {
+			ResenaEntity resena = doc.toObject(ResenaEntity.class);
+			if (resena != null) {
+				resena.setId(doc.getId());
+				resenas.add(resena);
+			}
+		}
+		return PaginaResenas.desde(resenas, limite);
+	}
+
+	private CompletableFuture<Map<String, RuntimeException>> agregarResenasDeAUna(List<ResenaNueva> resenas) {
+		Map<String, RuntimeException> fallidas = new ConcurrentHashMap<>();
+		CompletableFuture<?>[] escrituras = new CompletableFuture<?>[resenas.size()];
+		for (int i = 0; i < resenas.size(); i++) {
+			ResenaNueva nueva = resenas.get(i);
+			escrituras[i] = aCompletable(AGREGAR_RESENAS, loteResenas(List.of(nueva)).commit(),
+					"Error agregando reseña en Firestore")
+					.exceptionally(error -> {
+						fallidas.put(nueva.resena().getId(), causa(error));
+						return null;
+					});
+		}
+		return CompletableFuture.allOf(escrituras).thenApply(nada -> fallidas);
+	}
+
+	private static RuntimeException causa(Throwable error) {
+		Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		if (esYaExistente(causa.getCause())) {
+			return new ResenaExistenteException("La reseña ya existe", causa);
+		}
+		return causa instanceof RuntimeException runtime ? runtime : new RuntimeException(causa);
+	}
+
+	// Arma el lote de agregarResenas sin enviarlo
+	// Solo incrementos: el puntaje absoluto saldria de agregados leidos antes
+	// (el cache u otra instancia) y podria pisar uno mas nuevo
+	private WriteBatch loteResenas(List<ResenaNueva> resenas) {
+		WriteBatch batch = firestore.batch();
+		Map<String, Map<String, Long>> incrementos = new LinkedHashMap<>();
+		for (ResenaNueva nueva : resenas) {
+			ResenaEntity resena = nueva.resena();
+			// create: un id repetido (reseña idempotente ya escrita) hace fallar
+			// el lote en vez de pisarla y sumar dos veces los agregados
+			batch.create(resenasDe(nueva.docenteId()).document(resena.getId()), resena);
+
+			Map<String, Long> delDocente = incrementos.computeIfAbsent(nueva.docenteId(), id -> new LinkedHashMap<>());
+			delDocente.merge("cantResenas", 1L, Long::sum);
+			delDocente.merge("sumaEstrellas", (long) resena.getEstrellas(), Long::sum);
+			delDocente.merge("histograma." + resena.getEstrellas(), 1L, Long::sum);
+		}
+
+		incrementos.forEach((docenteId, delDocente) -> {
+			Map<String, Object> agregados = new HashMap<>();
+			delDocente.forEach((campo, cantidad) -> agregados.put(campo, FieldValue.increment(cantidad)));
+			batch.update(docentesCollection.document(docenteId), agregados);
+		});
+		return batch;
+	}
+
+	private Optional<DocenteEntity> aOptional(DocumentSnapshot doc) {
+		metricas.documentos(FIND_BY_ID, 1);
+		if (!doc.exists()) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(aEntidad(doc));
+	}
+
+	private DocenteEntity aEntidad(DocumentSnapshot doc) {
+		// Deserialización automática
+		DocenteEntity docente = doc.toObject(DocenteEntity.class);
+		if (docente != null) {
+			docente.setId(doc.getId());
+			// Con agregados el puntaje siempre se deriva de ellos (las reseñas
+			// nuevas no lo escriben); el guardado solo vale en documentos viejos
+			if (docente.getSumaEstrellas() != null && docente.getCantResenas() != null) {
+				docente.setPuntaje(DocenteEntity.calcularPuntaje(docente.getSumaEstrellas(), docente.getCantResenas()));
+			}
+		}
+		return docente;
+	}
+
+	private List<DocenteEntity> aEntidades(Operacion operacion, QuerySnapshot snapshot) {
+		metricas.documentos(operacion, snapshot.size());
+		List<DocenteEntity> docentes = new ArrayList<>();
+		for (DocumentSnapshot doc : snapshot.getDocuments()) {
+			DocenteEntity docente = aEntidad(doc);
+			if (docente != null) {
+				docentes.add(docente);
+			}
+		}
+		return docentes;
+	}
+
+	private <T> T esperar(Operacion operacion, ApiFuture<T> future, String mensajeError) {
+		Timer.Sample muestra = metricas.iniciar();
+		try {
+			T resultado = future.get();
+			metricas.registrar(muestra, operacion, null);
+			return resultado;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			metricas.registrar(muestra, operacion, e);
+			throw new RuntimeException(mensajeError, e);
+		} catch (ExecutionException e) {
+			metricas.registrar(muestra, operacion, e);
+			throw new RuntimeException(mensajeError, e);
+		}
+	}
+
+	// Version sin bloqueo de esperar: el callback corre en el hilo que completa
+	// el ApiFuture (el de gRPC), asi que lo que se encadene tiene que ser corto
+	private <T> CompletableFuture<T> aCompletable(Operacion operacion, ApiFuture<T> future, String mensajeError) {
+		Timer.Sample muestra = metricas.iniciar();
+		CompletableFuture<T> resultado = new CompletableFuture<>();
+		ApiFutures.addCallback(future, new ApiFutureCallback<T>() {
+			@Override
+			public void onSuccess(T valor) {
+				metricas.registrar(muestra, operacion, null);
+				resultado.complete(valor);
+			}
+
+			@Override
+			public void onFailure(Throwable error) {
+				metricas.registrar(muestra, operacion, error);
+				resultado.completeExceptionally(new RuntimeException(mensajeError, error));
+			}
+		}, MoreExecutors.directExecutor());
+		return resultado;
+	}
+}
@@ -0,0 +1,126 @@
+package com.affinityteach.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.model.entity.ResenaEntity;
+import com.google.cloud.Timestamp;
+
+// Genera docentes y reseñas sinteticos de forma reproducible (misma semilla,
+// mismos datos). Las reseñas se reparten con una ley de potencias para que haya
+// pocos docentes muy populares y muchos con pocas reseñas, como en produccion.
+// Entrega un docente por vez: 100k docentes / 10M reseñas no necesitan mas
+// memoria que la del destino.
+public class GeneradorDatosSinteticos {
+	private static final double EXPONENTE_POPULARIDAD = 0.5;
+	private static final long DOS_ANIOS_SEG = 2L * 365 * 24 * 60 * 60;
+
+	private static final String[] NOMBRES = { "Ana", "Bruno", "Carla", "Diego", "Elena", "Facundo", "Gabriela",
+			"Hernan", "Ines", "Javier", "Karina", "Lucas", "Maria", "Nicolas", "Olga", "Pablo", "Romina", "Sergio",
+			"Tamara", "Ulises", "Valeria", "Walter", "Ximena", "Yamila", "Zulma" };
+	private static final String[] APELLIDOS = { "Acosta", "Benitez", "Castro", "Diaz", "Espinoza", "Fernandez",
+			"Gomez", "Herrera", "Iglesias", "Juarez", "Lopez", "Martinez", "Nuñez", "Ortiz", "Perez", "Quiroga",
+			"Rodriguez", "Sosa", "Torres", "Vega", "Zapata" };
+	private static final String[] MATERIAS = { "Analisis Matematico I", "Analisis Matematico II", "Algebra",
+			"Fisica I", "Fisica II", "Quimica", "Programacion I", "Programacion II", "Bases de Datos",
+			"Sistemas Operativos", "Redes", "Ingles Tecnico", "Estadistica", "Economia", "Arquitectura de Computadoras",
+			"Ingenieria de Software", "Matematica Discreta", "Probabilidad" };
+	private static final String[] COMENTARIOS = { "Explica muy bien", "Muy exigente pero justo",
+			"Clases desordenadas", "Siempre responde las dudas", "Los parciales son largos", "Recomendable",
+			"No lo recomiendo", "Buen material de estudio", "Llega tarde seguido", "Excelente docente" };
+
+	private final long semilla;
+
+	public GeneradorDatosSinteticos(long semilla) {
+		this.semilla = semilla;
+	}
+
+	public void generar(int cantDocentes, long cantResenas, Consumer<DocenteEntity> destino) {
+		SplittableRandom random = new SplittableRandom(semilla);
+		long[] resenasPorDocente = repartirResenas(cantDocentes, cantResenas);
+		long ahoraSeg = Timestamp.now().getSeconds();
+		long nroResena = 0;
+
+		for (int i = 0; i < cantDocentes; i++) {
+			DocenteEntity docente = new DocenteEntity();
+			docente.setId(String.format("docente-%08d", i));
+			docente.setNombre(NOMBRES[random.nextInt(NOMBRES.length)] + " "
+					+ APELLIDOS[random.nextInt(APELLIDOS.length)] + " " + i);
+
+			List<String> materias = new ArrayList<>();
+			int cantMaterias = 1 + random.nextInt(3);
+			for (int m = 0; m < cantMaterias; m++) {
+				String materia = MATERIAS[random.nextInt(MATERIAS.length)];
+				if (!materias.contains(materia)) {
+					materias.add(materia);
+				}
+			}
+			docente.setMaterias(materias);
+
+			int cant = (int) resenasPorDocente[i];
+			List<ResenaEntity> resenas = new ArrayList<>(cant);
+			long suma = 0;
+			Map<String, Long> histograma = DocenteEntity.histogramaVacio();
+			for (int r = 0; r < cant; r++) {
+				ResenaEntity resena = new ResenaEntity();
+				resena.setId(String.format("resena-%010d", nroResena));
+				resena.setEstudiante("Estudiante " + random.nextInt(50_000));
+				resena.setEmail("estudiante" + nroResena + "@alumnos.edu.ar");
+				resena.setComentario(COMENTARIOS[random.nextInt(COMENTARIOS.length)]);
+				resena.setEstrellas(estrellas(random));
+				resena.setFecha(Timestamp.ofTimeSecondsAndNanos(ahoraSeg - random.nextLong(DOS_ANIOS_SEG), 0));
+				// Geometrica: la mayoria con pocos likes
+				resena.setLikes((int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(0.8)));
+				resenas.add(resena);
+				suma += resena.getEstrellas();
+				histograma.merge(String.valueOf(resena.getEstrellas()), 1L, Long::sum);
+				nroResena++;
+			}
+			docente.setResenas(resenas);
+			docente.setCantResenas(cant);
+			docente.setSumaEstrellas(suma);
+			docente.setHistograma(histograma);
+			docente.setPuntaje(DocenteEntity.calcularPuntaje(suma, cant));
+
+			destino.accept(docente);
+		}
+	}
+
+	// Reparte el total proporcional a 1/(i+1)^s, exacto en la suma
+	private static long[] repartirResenas(int cantDocentes, long cantResenas) {
+		long[] cantidades = new long[cantDocentes];
+		if (cantDocentes == 0 || cantResenas <= 0) {
+			return cantidades;
+		}
+		double[] pesos = new double[cantDocentes];
+		double total = 0;
+		for (int i = 0; i < cantDocentes; i++) {
+			pesos[i] = 1.0 / Math.pow(i + 1, EXPONENTE_POPULARIDAD);
+			total += pesos[i];
+		}
+		long asignadas = 0;
+		for (int i = 0; i < cantDocentes; i++) {
+			cantidades[i] = (long) Math.floor(cantResenas * pesos[i] / total);
+			asignadas += cantidades[i];
+		}
+		for (int i = 0; asignadas < cantResenas; i = (i + 1) % cantDocentes) {
+			cantidades[i]++;
+			asignadas++;
+		}
+		return cantidades;
+	}
+
+	// Sesgo hacia 4-5 estrellas
+	private static int estrellas(SplittableRandom random) {
+		int valor = random.nextInt(100);
+		if (valor < 5) return 1;
+		if (valor < 15) return 2;
+		if (valor < 35) return 3;
+		if (valor < 70) return 4;
+		return 5;
+	}
+}
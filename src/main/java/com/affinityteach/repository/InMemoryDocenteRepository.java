@@ -0,0 +1,384 @@
+package com.affinityteach.repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.model.entity.ResenaEntity;
+
+import jakarta.annotation.PostConstruct;
+
+// Motor en memoria para benchmarks, pruebas de carga y tests sin red.
+// Guarda copias de las entidades (como si se serializaran) y puede simular la
+// latencia de Firestore en cada operacion.
+@Repository
+@Profile("memory")
+public class InMemoryDocenteRepository implements DocenteRepository {
+	private static final Logger log = LoggerFactory.getLogger(InMemoryDocenteRepository.class);
+	private static final String CARACTERES_ID = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+	// El BulkWriter de Firestore manda las escrituras en lotes de 20
+	private static final int TANDA_BULK = 20;
+
+	private final Map<String, DocenteEntity> documentos = new ConcurrentHashMap<>();
+	private final Map<String, ResenasEnMemoria> resenas = new ConcurrentHashMap<>();
+	private final List<Oyente> oyentes = new CopyOnWriteArrayList<>();
+	private final long latenciaMs;
+	private final long jitterMs;
+
+	@Value("${affinityteach.memory.docentes:0}")
+	private int docentesIniciales;
+
+	@Value("${affinityteach.memory.resenas:0}")
+	private long resenasIniciales;
+
+	@Value("${affinityteach.memory.semilla:42}")
+	private long semilla;
+
+	public InMemoryDocenteRepository(
+			@Value("${affinityteach.memory.latencia-ms:0}") long latenciaMs,
+			@Value("${affinityteach.memory.jitter-ms:0}") long jitterMs) {
+		this.latenciaMs = latenciaMs;
+		this.jitterMs = jitterMs;
+	}
+
+	@PostConstruct
+	public void init() {
+		if (docentesIniciales > 0) {
+			cargarDatosSinteticos(docentesIniciales, resenasIniciales, semilla);
+		}
+	}
+
+	// Carga directa (sin latencia ni notificaciones) de datos generados
+	public void cargarDatosSinteticos(int cantDocentes, long cantResenas, long semilla) {
+		new GeneradorDatosSinteticos(semilla).generar(cantDocentes, cantResenas, docente -> {
+			// Las reseñas van a la subcoleccion, como en el formato actual
+			ResenasEnMemoria subcoleccion = resenasDe(docente.getId());
+			for (ResenaEntity resena : docente.getResenas()) {
+				subcoleccion.guardar(resena);
+			}
+			docente.setResenas(new ArrayList<>());
+			documentos.put(docente.getId(), docente);
+		});
+		log.info("Repositorio en memoria: {} docentes generados", documentos.size());
+	}
+
+	@Override
+	public List<DocenteEntity> findAll() {
+		simularLatencia();
+		List<DocenteEntity> docentes = new ArrayList<>(documentos.size());
+		for (DocenteEntity docente : documentos.values()) {
+			docentes.add(copiar(docente));
+		}
+		return docentes;
+	}
+
+	@Override
+	public Optional<DocenteEntity> findById(String id) {
+		simularLatencia();
+		return Optional.ofNullable(documentos.get(id)).map(InMemoryDocenteRepository::copiar);
+	}
+
+	@Override
+	public String nuevoId() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		StringBuilder id = new StringBuilder(20);
+		for (int i = 0; i < 20; i++) {
+			id.append(CARACTERES_ID.charAt(random.nextInt(CARACTERES_ID.length())));
+		}
+		return id.toString();
+	}
+
+	@Override
+	public void save(DocenteEntity docente) {
+		simularLatencia();
+		DocenteEntity guardado = copiar(docente);
+		DocenteEntity anterior = documentos.put(guardado.getId(), guardado);
+		notificar(anterior == null ? CambioDocente.agregado(copiar(guardado)) : CambioDocente.modificado(copiar(guardado)));
+	}
+
+	@Override
+	public Map<String, String> guardarTodos(List<DocenteEntity> docentes) {
+		List<CambioDocente> cambios = new ArrayList<>(docentes.size());
+		for (int i = 0; i < docentes.size(); i++) {
+			// Una espera por tanda, como los lotes que manda el BulkWriter
+			if (i % TANDA_BULK == 0) {
+				simularLatencia();
+			}
+			DocenteEntity guardado = copiar(docentes.get(i));
+			DocenteEntity anterior = documentos.put(guardado.getId(), guardado);
+			cambios.add(anterior == null ? CambioDocente.agregado(copiar(guardado)) : CambioDocente.modificado(copiar(guardado)));
+		}
+		notificar(cambios);
+		return Map.of();
+	}
+
+	@Override
+	public void update(String id, Map<String, Object> campos) {
+		simularLatencia();
+		DocenteEntity actualizado = documentos.computeIfPresent(id, (clave, actual) -> {
+			DocenteEntity copia = copiar(actual);
+			campos.forEach((campo, valor) -> aplicarCampo(copia, campo, valor));
+			return copia;
+		});
+		if (actualizado == null) {
+			throw new RuntimeException("Error actualizando docente: no existe el documento " + id);
+		}
+		notificar(CambioDocente.modificado(copiar(actualizado)));
+	}
+
+	@Override
+	public void deleteById(String id) {
+		simularLatencia();
+		resenas.remove(id);
+		if (documentos.remove(id) != null) {
+			notificar(CambioDocente.eliminado(id));
+		}
+	}
+
+	@Override
+	public PaginaResenas findResenas(String docenteId, CursorResena cursor, int limite) {
+		simularLatencia();
+		ResenasEnMemoria subcoleccion = resenas.get(docenteId);
+		if (subcoleccion == null) {
+			return new PaginaResenas(new ArrayList<>(), null);
+		}
+		return PaginaResenas.desde(subcoleccion.pagina(cursor, limite + 1), limite);
+	}
+
+	@Override
+	public Optional<ResenaEntity> findResena(String docenteId, String resenaId) {
+		simularLatencia();
+		ResenasEnMemoria subcoleccion = resenas.get(docenteId);
+		return subcoleccion == null ? Optional.empty() : subcoleccion.buscar(resenaId);
+	}
+
+	@Override
+	public Map<String, RuntimeException> agregarResenas(List<ResenaNueva> nuevas) {
+		simularLatencia();
+		// Como Firestore despues de reintentar de a una: fallan solo las
+		// reseñas de docentes que no existen o con un id ya usado
+		Map<String, RuntimeException> fallidas = new LinkedHashMap<>();
+		Map<String, DocenteEntity> actualizados = new LinkedHashMap<>();
+		for (ResenaNueva nueva : nuevas) {
+			ResenaEntity resena = nueva.resena();
+			if (!documentos.containsKey(nueva.docenteId())) {
+				fallidas.put(resena.getId(),
+						new RuntimeException("Error agregando reseña: no existe el documento " + nueva.docenteId()));
+				continue;
+			}
+			if (!resenasDe(nueva.docenteId()).crear(resena)) {
+				fallidas.put(resena.getId(), new ResenaExistenteException("La reseña ya existe: " + resena.getId(), null));
+				continue;
+			}
+			DocenteEntity actualizado = documentos.computeIfPresent(nueva.docenteId(), (clave, actual) -> {
+				DocenteEntity copia = copiar(actual);
+				copia.setCantResenas((copia.getCantResenas() != null ? copia.getCantResenas() : 0) + 1);
+				copia.setSumaEstrellas((copia.getSumaEstrellas() != null ? copia.getSumaEstrellas() : 0) + resena.getEstrellas());
+				if (copia.getHistograma() == null) {
+					copia.setHistograma(DocenteEntity.histogramaVacio());
+				}
+				copia.getHistograma().merge(String.valueOf(resena.getEstrellas()), 1L, Long::sum);
+				// Lo que deriva aEntidad en Firestore
+				copia.setPuntaje(DocenteEntity.calcularPuntaje(copia.getSumaEstrellas(), copia.getCantResenas()));
+				return copia;
+			});
+			if (actualizado != null) {
+				actualizados.put(actualizado.getId(), actualizado);
+			}
+		}
+		for (DocenteEntity actualizado : actualizados.values()) {
+			notificar(CambioDocente.modificado(copiar(actualizado)));
+		}
+		return fallidas;
+	}
+
+	@Override
+	public Map<String, Long> histogramaDeResenas(String docenteId) {
+		simularLatencia();
+		Map<String, Long> histograma = DocenteEntity.histogramaVacio();
+		ResenasEnMemoria subcoleccion = resenas.get(docenteId);
+		if (subcoleccion != null) {
+			for (ResenaEntity resena : subcoleccion.pagina(null, Integer.MAX_VALUE)) {
+				histograma.computeIfPresent(String.valueOf(resena.getEstrellas()), (clave, cant) -> cant + 1);
+			}
+		}
+		return histograma;
+	}
+
+	@Override
+	public Map<ClaveLike, Long> incrementarLikes(Map<ClaveLike, Long> incrementos) {
+		simularLatencia();
+		incrementos.forEach((clave, cantidad) -> {
+			ResenasEnMemoria subcoleccion = resenas.get(clave.docenteId());
+			if (subcoleccion != null) {
+				subcoleccion.incrementarLikes(clave.resenaId(), cantidad);
+			}
+		});
+		return Map.of();
+	}
+
+	@Override
+	public void migrarResenasEmbebidas(String docenteId, List<ResenaEntity> embebidas, Map<String, Object> camposDocente) {
+		simularLatencia();
+		ResenasEnMemoria subcoleccion = resenasDe(docenteId);
+		for (ResenaEntity resena : embebidas) {
+			subcoleccion.guardar(resena);
+		}
+		DocenteEntity actualizado = documentos.computeIfPresent(docenteId, (clave, actual) -> {
+			DocenteEntity copia = copiar(actual);
+			camposDocente.forEach((campo, valor) -> aplicarCampo(copia, campo, valor));
+			copia.setResenas(new ArrayList<>());
+			return copia;
+		});
+		if (actualizado != null) {
+			notificar(CambioDocente.modificado(copiar(actualizado)));
+		}
+	}
+
+	@Override
+	public Suscripcion suscribir(Oyente oyente) {
+		oyentes.add(oyente);
+		oyente.alCargar(findAll());
+		return () -> oyentes.remove(oyente);
+	}
+
+	// ============ MÉTODOS PRIVADOS ============
+
+	private ResenasEnMemoria resenasDe(String docenteId) {
+		return resenas.computeIfAbsent(docenteId, clave -> new ResenasEnMemoria());
+	}
+
+	private void notificar(CambioDocente cambio) {
+		notificar(List.of(cambio));
+	}
+
+	private void notificar(List<CambioDocente> cambios) {
+		if (cambios.isEmpty()) {
+			return;
+		}
+		for (Oyente oyente : oyentes) {
+			oyente.alCambiar(cambios);
+		}
+	}
+
+	private void simularLatencia() {
+		if (latenciaMs <= 0 && jitterMs <= 0) {
+			return;
+		}
+		long espera = latenciaMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+		try {
+			Thread.sleep(espera);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void aplicarCampo(DocenteEntity docente, String campo, Object valor) {
+		switch (campo) {
+		case "nombre" -> docente.setNombre((String) valor);
+		case "puntaje" -> docente.setPuntaje((Double) valor);
+		case "cantResenas" -> docente.setCantResenas((Integer) valor);
+		case "sumaEstrellas" -> docente.setSumaEstrellas((Long) valor);
+		case "histograma" -> docente.setHistograma(new LinkedHashMap<>((Map<String, Long>) valor));
+		case "materias" -> docente.setMaterias(new ArrayList<>((List<String>) valor));
+		case "resenas" -> docente.setResenas(copiarResenas((List<ResenaEntity>) valor));
+		default -> throw new IllegalArgumentException("Campo desconocido: " + campo);
+		}
+	}
+
+	static DocenteEntity copiar(DocenteEntity docente) {
+		DocenteEntity copia = new DocenteEntity(docente);
+		copia.setResenas(copiarResenas(docente.getResenas()));
+		return copia;
+	}
+
+	private static List<ResenaEntity> copiarResenas(List<ResenaEntity> resenas) {
+		if (resenas == null) {
+			return null;
+		}
+		List<ResenaEntity> copias = new ArrayList<>(resenas.size());
+		for (ResenaEntity resena : resenas) {
+			copias.add(copiar(resena));
+		}
+		return copias;
+	}
+
+	static ResenaEntity copiar(ResenaEntity resena) {
+		ResenaEntity copia = new ResenaEntity();
+		copia.setId(resena.getId());
+		copia.setEstudiante(resena.getEstudiante());
+		copia.setComentario(resena.getComentario());
+		copia.setEstrellas(resena.getEstrellas());
+		copia.setFecha(resena.getFecha());
+		copia.setLikes(resena.getLikes());
+		copia.setPhoto(resena.getPhoto());
+		copia.setEmail(resena.getEmail());
+		return copia;
+	}
+
+	// Subcoleccion docentes/{id}/resenas: indice por id + orden (fecha, id)
+	private static class ResenasEnMemoria {
+		private final Map<String, CursorResena> porId = new ConcurrentHashMap<>();
+		private final ConcurrentSkipListMap<CursorResena, ResenaEntity> ordenadas = new ConcurrentSkipListMap<>();
+
+		synchronized void guardar(ResenaEntity resena) {
+			CursorResena clave = CursorResena.de(resena);
+			CursorResena anterior = porId.put(resena.getId(), clave);
+			if (anterior != null) {
+				ordenadas.remove(anterior);
+			}
+			ordenadas.put(clave, copiar(resena));
+		}
+
+		// Como create de Firestore: false si el id ya existe
+		synchronized boolean crear(ResenaEntity resena) {
+			if (porId.containsKey(resena.getId())) {
+				return false;
+			}
+			guardar(resena);
+			return true;
+		}
+
+		Optional<ResenaEntity> buscar(String resenaId) {
+			CursorResena clave = porId.get(resenaId);
+			return Optional.ofNullable(clave != null ? ordenadas.get(clave) : null).map(InMemoryDocenteRepository::copiar);
+		}
+
+		boolean incrementarLikes(String resenaId, long cantidad) {
+			CursorResena clave = porId.get(resenaId);
+			if (clave == null) {
+				return false;
+			}
+			return ordenadas.computeIfPresent(clave, (k, actual) -> {
+				ResenaEntity copia = copiar(actual);
+				copia.setLikes((int) ((actual.getLikes() != null ? actual.getLikes() : 0) + cantidad));
+				return copia;
+			}) != null;
+		}
+
+		List<ResenaEntity> pagina(CursorResena cursor, int cantidad) {
+			List<ResenaEntity> pagina = new ArrayList<>(Math.min(cantidad, 256));
+			for (ResenaEntity resena : (cursor == null ? ordenadas : ordenadas.tailMap(cursor, false)).values()) {
+				if (pagina.size() == cantidad) {
+					break;
+				}
+				pagina.add(copiar(resena));
+			}
+			return pagina;
+		}
+	}
+}
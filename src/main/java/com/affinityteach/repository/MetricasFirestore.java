@@ -0,0 +1,74 @@
+package com.affinityteach.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Latencia y cantidad de operaciones contra Firestore, por operacion, y
+// documentos leidos/escritos (lo que Firestore cobra)
+class MetricasFirestore {
+
+	enum Operacion {
+		FIND_ALL("findAll", false),
+		FIND_BY_ID("findById", false),
+		SAVE("save", true),
+		GUARDAR_TODOS("guardarTodos", true),
+		UPDATE("update", true),
+		DELETE_BY_ID("deleteById", true),
+		FIND_RESENAS("findResenas", false),
+		FIND_RESENA("findResena", false),
+		AGREGAR_RESENAS("agregarResenas", true),
+		HISTOGRAMA_DE_RESENAS("histogramaDeResenas", false),
+		INCREMENTAR_LIKES("incrementarLikes", true),
+		MIGRAR_RESENAS_EMBEBIDAS("migrarResenasEmbebidas", true),
+		LISTENER("listener", false);
+
+		private final String nombre;
+		private final boolean escritura;
+
+		Operacion(String nombre, boolean escritura) {
+			this.nombre = nombre;
+			this.escritura = escritura;
+		}
+
+		String tipo() {
+			return escritura ? "escritura" : "lectura";
+		}
+	}
+
+	private final MeterRegistry registry;
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+	private final Map<Operacion, Counter> documentos = new ConcurrentHashMap<>();
+
+	MetricasFirestore(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	Timer.Sample iniciar() {
+		return Timer.start(registry);
+	}
+
+	void registrar(Timer.Sample muestra, Operacion operacion, Throwable error) {
+		String resultado = error == null ? "ok" : "error";
+		muestra.stop(timers.computeIfAbsent(operacion.nombre + "|" + resultado, clave -> Timer
+				.builder("affinityteach.firestore.operaciones")
+				.description("Llamadas a Firestore")
+				.tag("operacion", operacion.nombre)
+				.tag("tipo", operacion.tipo())
+				.tag("resultado", resultado)
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.register(registry)));
+	}
+
+	void documentos(Operacion operacion, long cantidad) {
+		documentos.computeIfAbsent(operacion, clave -> Counter
+				.builder("affinityteach.firestore.documentos")
+				.description("Documentos leidos o escritos")
+				.tag("operacion", operacion.nombre)
+				.tag("tipo", operacion.tipo())
+				.register(registry)).increment(cantidad);
+	}
+}
@@ -0,0 +1,19 @@
+package com.affinityteach.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.affinityteach.model.entity.ResenaEntity;
+
+// Una pagina de reseñas; siguienteCursor es null cuando no hay mas
+public record PaginaResenas(List<ResenaEntity> resenas, String siguienteCursor) {
+
+	// Recibe hasta limite + 1 reseñas: el elemento extra indica que hay otra pagina
+	public static PaginaResenas desde(List<ResenaEntity> resenas, int limite) {
+		if (resenas.size() <= limite) {
+			return new PaginaResenas(resenas, null);
+		}
+		List<ResenaEntity> pagina = new ArrayList<>(resenas.subList(0, limite));
+		return new PaginaResenas(pagina, CursorResena.de(pagina.get(limite - 1)).codificar());
+	}
+}
@@ -0,0 +1,10 @@
+package com.affinityteach.repository;
+
+// Ya hay una reseña con ese id: la escribio un intento anterior u otra instancia
+public class ResenaExistenteException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	public ResenaExistenteException(String mensaje, Throwable causa) {
+		super(mensaje, causa);
+	}
+}
@@ -0,0 +1,7 @@
+package com.affinityteach.repository;
+
+import com.affinityteach.model.entity.ResenaEntity;
+
+// Reseña a crear en docentes/{docenteId}/resenas
+public record ResenaNueva(String docenteId, ResenaEntity resena) {
+}
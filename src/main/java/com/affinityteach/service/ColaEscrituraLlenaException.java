@@ -0,0 +1,10 @@
+package com.affinityteach.service;
+
+// La cola de escritura diferida esta llena: hay que reintentar mas tarde
+public class ColaEscrituraLlenaException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	public ColaEscrituraLlenaException(String mensaje) {
+		super(mensaje);
+	}
+}
@@ -0,0 +1,163 @@
+package com.affinityteach.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.affinityteach.cache.DocenteCache;
+import com.affinityteach.model.entity.ResenaEntity;
+import com.affinityteach.repository.ClaveLike;
+import com.affinityteach.repository.DocenteRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// Acumula los likes en memoria y los escribe cada tanto como incrementos
+// atomicos de campo. Un click no lee ni escribe Firestore salvo el primero
+// sobre cada reseña (para validar que existe).
+@Component
+public class ContadorLikes {
+	private static final Logger log = LoggerFactory.getLogger(ContadorLikes.class);
+	// Tope de reseñas recordadas como validas; al pasarlo se olvidan todas
+	private static final int MAX_CONOCIDAS = 50_000;
+
+	private final DocenteRepository docenteRepository;
+	private final DocenteCache docenteCache;
+	// merge/remove de ConcurrentHashMap bloquean solo el bin de cada clave
+	// (locking por franjas): likes sobre reseñas distintas no compiten, y el
+	// flush retira cada contador de forma atomica sin perder ni duplicar clicks
+	private final Map<ClaveLike, Long> pendientes = new ConcurrentHashMap<>();
+	private final Map<ClaveLike, Conocida> conocidas = new ConcurrentHashMap<>();
+	private final ReentrantLock flushEnCurso = new ReentrantLock();
+
+	public ContadorLikes(DocenteRepository docenteRepository, DocenteCache docenteCache) {
+		this.docenteRepository = docenteRepository;
+		this.docenteCache = docenteCache;
+	}
+
+	// Registra un like y devuelve la reseña con el total estimado de likes
+	public Optional<ResenaEntity> registrar(String docenteId, String resenaId) {
+		ClaveLike clave = new ClaveLike(docenteId, resenaId);
+
+		Conocida conocida = conocidas.get(clave);
+		if (conocida == null) {
+			Optional<ResenaEntity> resena = docenteRepository.findResena(docenteId, resenaId);
+			if (resena.isEmpty()) {
+				return Optional.empty();
+			}
+			Conocida nueva = new Conocida(resena.get());
+			Conocida existente = conocidas.putIfAbsent(clave, nueva);
+			conocida = existente != null ? existente : nueva;
+		}
+
+		long pendientesClave = pendientes.merge(clave, 1L, Long::sum);
+		return Optional.of(conocida.vista(pendientesClave));
+	}
+
+	// Likes todavia no escritos en Firestore para una reseña
+	public long getPendientes(String docenteId, String resenaId) {
+		return pendientes.getOrDefault(new ClaveLike(docenteId, resenaId), 0L);
+	}
+
+	public int getResenasConPendientes() {
+		return pendientes.size();
+	}
+
+	@Scheduled(fixedDelayString = "${affinityteach.likes.flush-ms:1000}")
+	public void flush() {
+		// Lock y no synchronized: el flush espera a Firestore con el lock tomado
+		flushEnCurso.lock();
+		try {
+			escribirPendientes();
+		} finally {
+			flushEnCurso.unlock();
+		}
+	}
+
+	private void escribirPendientes() {
+		Map<ClaveLike, Long> incrementos = new HashMap<>();
+		for (ClaveLike clave : pendientes.keySet()) {
+			Long cantidad = pendientes.remove(clave);
+			if (cantidad != null) {
+				incrementos.put(clave, cantidad);
+				Conocida conocida = conocidas.get(clave);
+				if (conocida != null) {
+					conocida.aplicados.addAndGet(cantidad);
+				}
+			}
+		}
+		if (conocidas.size() > MAX_CONOCIDAS) {
+			conocidas.clear();
+		}
+		if (incrementos.isEmpty()) {
+			return;
+		}
+
+		Map<ClaveLike, Long> fallidos;
+		try {
+			fallidos = docenteRepository.incrementarLikes(incrementos);
+		} catch (RuntimeException e) {
+			log.error("Error escribiendo likes; se reintentan en el proximo flush", e);
+			fallidos = incrementos;
+		}
+
+		// Lo que no se pudo escribir vuelve a quedar pendiente
+		fallidos.forEach((clave, cantidad) -> {
+			pendientes.merge(clave, cantidad, Long::sum);
+			Conocida conocida = conocidas.get(clave);
+			if (conocida != null) {
+				conocida.aplicados.addAndGet(-cantidad);
+			}
+		});
+
+		// Las reseñas de estos docentes cambiaron: nueva version (invalida ETags)
+		Set<String> modificados = new HashSet<>();
+		for (ClaveLike clave : incrementos.keySet()) {
+			if (!fallidos.containsKey(clave)) {
+				modificados.add(clave.docenteId());
+			}
+		}
+		if (!modificados.isEmpty()) {
+			docenteCache.marcarModificados(modificados);
+		}
+	}
+
+	@PreDestroy
+	public void detener() {
+		flush();
+	}
+
+	private static class Conocida {
+		// Reseña tal como estaba al leerla la primera vez
+		private final ResenaEntity base;
+		// Likes ya escritos desde que se leyo la base
+		private final AtomicLong aplicados = new AtomicLong();
+
+		Conocida(ResenaEntity base) {
+			this.base = base;
+		}
+
+		ResenaEntity vista(long pendientes) {
+			ResenaEntity resena = new ResenaEntity();
+			resena.setId(base.getId());
+			resena.setEstudiante(base.getEstudiante());
+			resena.setComentario(base.getComentario());
+			resena.setEstrellas(base.getEstrellas());
+			resena.setFecha(base.getFecha());
+			resena.setPhoto(base.getPhoto());
+			resena.setEmail(base.getEmail());
+			long likesBase = base.getLikes() != null ? base.getLikes() : 0;
+			resena.setLikes((int) (likesBase + aplicados.get() + pendientes));
+			return resena;
+		}
+	}
+}
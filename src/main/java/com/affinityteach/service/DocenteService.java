@@ -1,427 +1,606 @@
 package com.affinityteach.service;
 
+import com.affinityteach.cache.CacheResenas;
+import com.affinityteach.cache.CursorDocente;
 import com.affinityteach.cache.DocenteCache;
-import com.affinityteach.firebase.FirebaseInitializer;
+import com.affinityteach.cache.IndiceBusquedaDocentes;
+import com.affinityteach.cache.IndiceMaterias;
+import com.affinityteach.cache.IndiceMaterias.ResultadoFiltro;
+import com.affinityteach.cache.OrdenResenas;
+import com.affinityteach.cache.OrdenesResenas;
+import com.affinityteach.cache.PaginaDocentes;
+import com.affinityteach.cache.RankingDocentes;
+import com.affinityteach.cache.RespuestasSerializadas;
+import com.affinityteach.cache.VersionCache;
 import com.affinityteach.model.dto.DocenteRequestDTO;
+import com.affinityteach.model.dto.ItemImportacionDTO;
 import com.affinityteach.model.dto.ResenaRequestDTO;
+import com.affinityteach.model.dto.ResultadoImportacionDTO;
 import com.affinityteach.model.entity.DocenteEntity;
 import com.affinityteach.model.entity.ResenaEntity;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
+import com.affinityteach.repository.CambioDocente;
+import com.affinityteach.repository.CursorResena;
+import com.affinityteach.repository.DocenteRepository;
+import com.affinityteach.repository.PaginaResenas;
+import com.affinityteach.repository.ResenaExistenteException;
+import com.google.cloud.Timestamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import jakarta.annotation.PostConstruct;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class DocenteService {
+    private static final Logger log = LoggerFactory.getLogger(DocenteService.class);
     
-	private DocenteCache docenteCache;
-    private final FirebaseInitializer firebaseInitializer;
-    private Firestore firestore;
-    private CollectionReference docentesCollection;
+	private final DocenteCache docenteCache;
+    private final DocenteRepository docenteRepository;
+    private final ContadorLikes contadorLikes;
+    private final EscrituraDiferida escrituraDiferida;
+    private final IndiceBusquedaDocentes indiceBusqueda;
+    private final RespuestasSerializadas respuestasSerializadas;
+    private final CacheResenas cacheResenas;
+    private final RankingDocentes ranking;
+    private final IndiceMaterias indiceMaterias;
+    private final OrdenesResenas ordenesResenas;
+    private final RegistroIdempotencia registroIdempotencia;
     
-    private static final String COLECCION_DOCENTES = "docentes";
-    
-    public DocenteService(FirebaseInitializer firebaseInitializer, DocenteCache docenteCache) {
-        this.firebaseInitializer = firebaseInitializer;
+    public DocenteService(DocenteRepository docenteRepository, DocenteCache docenteCache,
+            ContadorLikes contadorLikes, EscrituraDiferida escrituraDiferida,
+            IndiceBusquedaDocentes indiceBusqueda, RespuestasSerializadas respuestasSerializadas,
+            CacheResenas cacheResenas, RankingDocentes ranking,
+            IndiceMaterias indiceMaterias, OrdenesResenas ordenesResenas,
+            RegistroIdempotencia registroIdempotencia) {
+        this.docenteRepository = docenteRepository;
         this.docenteCache = docenteCache;
-    }
-    
-    @PostConstruct
-    private void init() {
-        this.firestore = firebaseInitializer.getFirestore();
-        this.docentesCollection = firestore.collection(COLECCION_DOCENTES);
+        this.contadorLikes = contadorLikes;
+        this.escrituraDiferida = escrituraDiferida;
+        this.indiceBusqueda = indiceBusqueda;
+        this.respuestasSerializadas = respuestasSerializadas;
+        this.cacheResenas = cacheResenas;
+        this.ranking = ranking;
+        this.indiceMaterias = indiceMaterias;
+        this.ordenesResenas = ordenesResenas;
+        this.registroIdempotencia = registroIdempotencia;
     }
     
     // ============ MÉTODOS PRINCIPALES ============
     
-    // 1. Obtener todas las reseñas de un docente por ID
-    public Optional<List<ResenaEntity>> getResenasByDocenteId(String id) {
-        try {
-            DocumentReference docenteRef = docentesCollection.document(id);
-            DocumentSnapshot doc = docenteRef.get().get();
-            
-            if (!doc.exists()) {
-                return Optional.empty();
-            }
-            
-            // ¡POJO MAGIC! Firestore deserializa automáticamente
-            DocenteEntity docente = doc.toObject(DocenteEntity.class);
-            if (docente == null) {
-                return Optional.empty();
-            }
-            
-            docente.setId(doc.getId()); // Asignar ID desde documento
-            
-            // Asegurar que las reseñas no sean null
-            List<ResenaEntity> resenas = docente.getResenas() != null ? 
-                    docente.getResenas() : new ArrayList<>();
-            
-            return Optional.of(resenas);
-            
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Error obteniendo reseñas de docente desde Firestore", e);
-        }
-    }
-    
     // 2. Obtener docente por ID
     public Optional<DocenteEntity> getDocenteById(String id) {
         Optional<DocenteEntity> docente = docenteCache.getDocenteById(id);
         
         if (docente.isPresent()) {
-            System.out.println("Docente " + id + " encontrado en CACHE");
             return docente;
         }
+        // Los pedidos simultaneos del mismo id comparten la lectura a Firestore
         try {
-            DocumentReference docenteRef = docentesCollection.document(id);
-            DocumentSnapshot doc = docenteRef.get().get();
-            
-            if (!doc.exists()) {
-                return Optional.empty();
-            }
-            
-            // Deserialización automática
-            DocenteEntity docenteEntity = doc.toObject(DocenteEntity.class);
-            if (docenteEntity != null) {
-            	docenteEntity.setId(doc.getId());
-            }
-            return Optional.ofNullable(docenteEntity);
-            
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Error obteniendo docente de Firestore", e);
+            return docenteCache.buscarDocente(id).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException causa ? causa : e;
         }
     }
     
-    // 3. Agregar reseña a un docente
-    public Optional<DocenteEntity> agregarResena(String docenteId, ResenaRequestDTO resenaRequest) {
-        try {
-            Optional<DocenteEntity> docenteOpt = docenteCache.getDocenteById(docenteId);
-            DocumentReference docenteRef = docentesCollection.document(docenteId);
-            
-            DocenteEntity docente;
-            boolean desdeCache = false;
-            if (docenteOpt.isPresent()) {
-                docente = docenteOpt.get();
-                desdeCache = true;
-            } else {
-                // si no esta en cache
-                DocumentSnapshot doc = docenteRef.get().get();
-                
-                if (!doc.exists()) return Optional.empty();
-                
-                docente = doc.toObject(DocenteEntity.class);
-                if (docente == null) return Optional.empty();
-                docente.setId(doc.getId());
-            }
-            
-            // Validar estrellas
-            if (resenaRequest.getEstrellas() == null || 
-                resenaRequest.getEstrellas() < 1 || 
-                resenaRequest.getEstrellas() > 5) {
-                throw new IllegalArgumentException("Las estrellas deben estar entre 1 y 5");
-            }
-            
-            // Crear nueva reseña
-            ResenaEntity nuevaResena = new ResenaEntity(
-                resenaRequest.getEstudiante(),
-                resenaRequest.getComentario(),
-                resenaRequest.getEstrellas(),
-                resenaRequest.getPhoto(),
-                resenaRequest.getEmail()
-            );
-            
-            // Agregar a la lista
-            docente.getResenas().add(nuevaResena);
-            docente.setCantResenas(docente.getResenas().size());
-            
-            // Calcular nuevo promedio
-            calcularPuntajePromedio(docente);
-            
-            // Guardar en Firestore (update solo los campos necesarios)
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("resenas", docente.getResenas());
-            updates.put("cantResenas", docente.getCantResenas());
-            updates.put("puntaje", docente.getPuntaje());
-            
-            docenteRef.update(updates).get();
-            System.out.println("💾 Reseña guardada en Firestore");
-            
-            // 5. Actualizar cache
-            if (desdeCache) {
-                // Si ya estaba en cache, actualizar con datos locales
-                docenteCache.actualizarDocenteIndividualConDatos(docenteId, docente);
-            } else {
-                // Si no estaba en cache, forzar reload desde Firestore
-                docenteCache.actualizarDocenteIndividual(docenteId);
-            }
-            
-            return Optional.of(docente);
-            
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Error agregando reseña en Firestore", e);
-        }
+    // 4. Dar like a una reseña
+    // Se acumula en memoria y se escribe en lote (ver ContadorLikes)
+    public Optional<ResenaEntity> darLike(String docenteId, String resenaId) {
+        Optional<ResenaEntity> resena = contadorLikes.registrar(docenteId, resenaId);
+        resena.ifPresent(conLike -> ordenesResenas.actualizarLikes(docenteId, conLike));
+        return resena;
     }
     
-    // 4. Dar like a una reseña
-    public Optional<DocenteEntity> darLike(String docenteId, String resenaId) {
-        try {
-            DocumentReference docenteRef = docentesCollection.document(docenteId);
-            DocumentSnapshot doc = docenteRef.get().get();
-            
-            if (!doc.exists()) {
-                return Optional.empty();
-            }
-            
-            DocenteEntity docente = doc.toObject(DocenteEntity.class);
-            if (docente == null || docente.getResenas() == null) {
-                return Optional.empty();
-            }
-            docente.setId(doc.getId());
-            
-            // Buscar y actualizar la reseña
-            boolean encontrado = false;
-            for (ResenaEntity resena : docente.getResenas()) {
-                if (resena.getId() != null && resena.getId().equals(resenaId)) {
-                    resena.setLikes(resena.getLikes() + 1);
-                    encontrado = true;
-                    break;
-                }
+    public List<DocenteEntity> getAllDocentes() {
+        return docenteCache.getDocentes();
+    }
+    
+    // Version del listado completo y de cada docente (para ETag / Last-Modified)
+    public VersionCache getVersion() {
+        return docenteCache.getVersion();
+    }
+    
+    public Optional<VersionCache> getVersion(String docenteId) {
+        return docenteCache.getVersion(docenteId);
+    }
+    
+    // JSON (y gzip) ya armado del listado completo para la version actual
+    public RespuestasSerializadas.Respuesta getListadoSerializado(boolean resumen) {
+        return respuestasSerializadas.listado(resumen);
+    }
+    
+    // Vacio si el docente no esta en cache
+    public Optional<RespuestasSerializadas.Respuesta> getDocenteSerializado(String id) {
+        return respuestasSerializadas.docente(id);
+    }
+    
+    // Pagina del listado (orden por nombre) desde el cursor recibido
+    public PaginaDocentes getDocentes(String cursor, int limite) {
+        CursorDocente desde = cursor != null && !cursor.isBlank() ? CursorDocente.decodificar(cursor) : null;
+        return docenteCache.getPagina(desde, limite);
+    }
+    
+    // 6. Crear nuevo docente
+    public DocenteEntity crearDocente(DocenteRequestDTO docenteRequest) {
+        // Generar nuevo documento
+        String nuevoId = docenteRepository.nuevoId();
+        
+        // Crear entidad
+        DocenteEntity docente = nuevoDocente(nuevoId, docenteRequest);
+        
+        // Guardar en Firestore
+        docenteRepository.save(docente);
+        docenteCache.actualizarDocenteIndividualConDatos(nuevoId, docente);
+        
+        return docente;
+    }
+    
+    //6.5 Importar lista de docentes
+    // Se escriben todos juntos en paralelo (BulkWriter) y el cache se
+    // actualiza en un solo paso. El resultado indica que paso con cada uno.
+    public ResultadoImportacionDTO importarDocentes(List<DocenteRequestDTO> docentesRequest) {
+        List<ItemImportacionDTO> items = new ArrayList<>(docentesRequest.size());
+        List<DocenteEntity> aGuardar = new ArrayList<>(docentesRequest.size());
+        
+        // 1. Los invalidos se informan sin escribir nada
+        for (int i = 0; i < docentesRequest.size(); i++) {
+            DocenteRequestDTO dto = docentesRequest.get(i);
+            try {
+                validarDocenteRequest(dto);
+            } catch (IllegalArgumentException e) {
+                items.add(new ItemImportacionDTO(i, null, dto != null ? dto.getNombre() : null, false, e.getMessage()));
+                continue;
             }
-            
-            if (!encontrado) {
-                return Optional.empty();
+            DocenteEntity docente = nuevoDocente(docenteRepository.nuevoId(), dto);
+            aGuardar.add(docente);
+            items.add(new ItemImportacionDTO(i, docente.getId(), docente.getNombre(), true, null));
+        }
+        
+        // 2. Escritura en paralelo; vuelven solo los que fallaron
+        Map<String, String> fallidos = aGuardar.isEmpty() ? Map.of() : docenteRepository.guardarTodos(aGuardar);
+        
+        // 3. Resultado por item y cache con los creados
+        List<DocenteEntity> creados = new ArrayList<>(aGuardar.size());
+        List<CambioDocente> cambios = new ArrayList<>(aGuardar.size());
+        for (DocenteEntity docente : aGuardar) {
+            if (!fallidos.containsKey(docente.getId())) {
+                creados.add(docente);
+                cambios.add(CambioDocente.agregado(docente));
             }
-            
-            // Actualizar solo las reseñas
-            docenteRef.update("resenas", docente.getResenas()).get();
-            
-            return Optional.of(docente);
-            
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Error dando like en Firestore", e);
         }
+        if (!fallidos.isEmpty()) {
+            items.replaceAll(item -> fallidos.containsKey(item.getId())
+                    ? new ItemImportacionDTO(item.getIndice(), item.getId(), item.getNombre(), false,
+                            fallidos.get(item.getId()))
+                    : item);
+        }
+        docenteCache.aplicarCambios(cambios);
+        
+        log.info("Importacion: {} docentes creados, {} con error", creados.size(), items.size() - creados.size());
+        return new ResultadoImportacionDTO(items, creados);
     }
     
-    // 5. Obtener todos los docentes
-    public List<DocenteEntity> getAllDocentesFromFirestore() {
-        try {
-            ApiFuture<QuerySnapshot> future = docentesCollection.get();
-            QuerySnapshot snapshot = future.get();
-            
-            List<DocenteEntity> docentes = new ArrayList<>();
-            for (DocumentSnapshot doc : snapshot.getDocuments()) {
-                DocenteEntity docente = doc.toObject(DocenteEntity.class);
-                if (docente != null) {
-                    docente.setId(doc.getId());
-                    docentes.add(docente);
-                }
+    // 9. Buscar docentes por nombre
+    // Sobre el indice en memoria (nombre y materias, sin mayusculas ni acentos)
+    public List<DocenteEntity> buscarPorNombre(String nombre, int limite) {
+        return indiceBusqueda.buscar(nombre, limite);
+    }
+    
+    // 9.5 Mejores docentes por puntaje, opcionalmente de una materia
+    public List<DocenteEntity> getTop(String materia, int limite) {
+        return ranking.top(materia, limite);
+    }
+    
+    // 9.6 Filtrar docentes por materias (todas o alguna) con conteos por materia
+    public ResultadoFiltro filtrarPorMaterias(List<String> materias, boolean todas, String cursor, int limite) {
+        return indiceMaterias.filtrar(materias, todas, cursor, limite);
+    }
+    
+    // 11. Migrar todos los documentos con reseñas embebidas a la subcoleccion
+    // y completar los agregados de los que no los tienen
+    public Map<String, Object> migrarResenasASubcoleccion() {
+        int docentesMigrados = 0;
+        int resenasMigradas = 0;
+        int agregadosCompletados = 0;
+        
+        for (DocenteEntity docente : docenteRepository.findAll()) {
+            if (docente.getResenas() != null && !docente.getResenas().isEmpty()) {
+                resenasMigradas += docente.getResenas().size();
+                migrarResenasEmbebidas(docente);
+                docentesMigrados++;
+            } else if (!tieneAgregados(docente)) {
+                asegurarAgregados(docente);
+                agregadosCompletados++;
             }
-            
-            // Ordenar por nombre
-            docentes.sort(Comparator.comparing(DocenteEntity::getNombre));
-            return docentes;
-            
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Error obteniendo docentes de Firestore", e);
         }
+        return Map.of(
+            "docentesMigrados", docentesMigrados,
+            "resenasMigradas", resenasMigradas,
+            "agregadosCompletados", agregadosCompletados
+        );
     }
     
-    public List<DocenteEntity> getAllDocentes() {
-        return docenteCache.getDocentes();
+    // 12. Distribucion de estrellas de un docente (sin leer reseñas)
+    public Optional<Map<String, Object>> getDistribucion(String id) {
+        return getDocenteById(id).map(docente -> {
+            DocenteEntity conAgregados = asegurarAgregados(migrarResenasEmbebidas(docente));
+            Map<String, Object> distribucion = new LinkedHashMap<>();
+            distribucion.put("puntaje", conAgregados.getPuntaje());
+            distribucion.put("cantResenas", conAgregados.getCantResenas());
+            distribucion.put("histograma", conAgregados.getHistograma());
+            return distribucion;
+        });
     }
     
-    // 6. Crear nuevo docente
-    public DocenteEntity crearDocente(DocenteRequestDTO docenteRequest) {
-        try {
-            // Generar nuevo documento
-            DocumentReference nuevoDoc = docentesCollection.document();
-            String nuevoId = nuevoDoc.getId();
-            
-            // Crear entidad
-            DocenteEntity docente = new DocenteEntity();
-            docente.setId(nuevoId);
-            docente.setNombre(docenteRequest.getNombre());
-            docente.setMaterias(docenteRequest.getMaterias() != null ? 
-                docenteRequest.getMaterias() : new ArrayList<>());
-            docente.setPuntaje(0.0);
-            docente.setCantResenas(0);
-            docente.setResenas(new ArrayList<>());
-            
-            // Guardar en Firestore
-            nuevoDoc.set(docente).get();
-            
-            return docente;
-            
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Error creando docente en Firestore", e);
-        }
+    // Método para forzar refresh del cache
+    public void refreshCache() {
+        log.info("Forzando refresh del cache...");
+        docenteCache.refreshCache();
+        cacheResenas.invalidarTodo();
+        ordenesResenas.invalidarTodo();
     }
     
-    //6.5 Importar lista de docentes
-    public void importarDocentes(List<DocenteRequestDTO> docenteRequest) {
-        for(DocenteRequestDTO dto : docenteRequest) {
-            crearDocente(dto);
+    // Métricas del cache (para debug; las mismas van a /actuator/prometheus)
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", docenteCache.getCacheSize());
+        stats.put("lastUpdate", new Date(docenteCache.getLastUpdate()));
+        stats.put("ttlMinutos", docenteCache.getTtlMs() / 60000);
+        stats.put("status", docenteCache.getEstado());
+        stats.put("hits", docenteCache.getAciertos());
+        stats.put("misses", docenteCache.getFallos());
+        stats.put("recargas", docenteCache.getRecargas());
+        stats.put("recargasFallidas", docenteCache.getRecargasFallidas());
+        stats.put("bytesEstimados", docenteCache.getBytesEstimados());
+        
+        // Segundo nivel: paginas de reseñas cargadas a pedido
+        Map<String, Object> resenas = new LinkedHashMap<>();
+        resenas.put("paginas", cacheResenas.getCantidadPaginas());
+        resenas.put("bytesEstimados", cacheResenas.getBytesEstimados());
+        resenas.put("maxBytes", cacheResenas.getMaxBytes());
+        resenas.put("hitRate", cacheResenas.getEstadisticas().hitRate());
+        resenas.put("desalojos", cacheResenas.getEstadisticas().evictionCount());
+        stats.put("resenas", resenas);
+        
+        // Reseñas ordenadas por likes, fecha o estrellas (por docente)
+        Map<String, Object> ordenadas = new LinkedHashMap<>();
+        ordenadas.put("docentes", ordenesResenas.getCantidadDocentes());
+        ordenadas.put("maxBytes", ordenesResenas.getMaxBytes());
+        stats.put("resenasOrdenadas", ordenadas);
+        stats.put("resenasIdempotentes", registroIdempotencia.getCantidad());
+        return stats;
+    }
+    
+    // Reglas de un docente nuevo (las usan el controller y las importaciones)
+    public static void validarDocenteRequest(DocenteRequestDTO request) {
+        if (request == null || request.getNombre() == null || request.getNombre().trim().isEmpty()) {
+            throw new IllegalArgumentException("El nombre del docente es requerido");
         }
     }
     
-    // 7. Actualizar docente
-    public Optional<DocenteEntity> actualizarDocente(String id, DocenteRequestDTO docenteRequest) {
-        try {
-            DocumentReference docenteRef = docentesCollection.document(id);
-            DocumentSnapshot doc = docenteRef.get().get();
-            
-            if (!doc.exists()) {
-                return Optional.empty();
+    // ============ VARIANTES ASINCRONICAS ============
+    // Las operaciones que esperan a Firestore, encadenando futures: ningun hilo
+    // queda esperando y las lecturas independientes van en paralelo.
+    // Los errores llegan como el future fallado (envueltos en CompletionException).
+    
+    // 1. Reseñas paginadas: el docente y la pagina se piden a la vez
+    public CompletableFuture<Optional<PaginaResenas>> getResenasByDocenteIdAsync(String id, String cursor, int limite) {
+        CursorResena desde = cursor != null && !cursor.isBlank() ? CursorResena.decodificar(cursor) : null;
+        CompletableFuture<Optional<DocenteEntity>> docente = getDocenteByIdAsync(id);
+        CompletableFuture<PaginaResenas> pagina = cacheResenas.obtener(id, desde, limite);
+        
+        return docente.thenCompose(encontrado -> {
+            if (encontrado.isEmpty()) {
+                return CompletableFuture.completedFuture(Optional.<PaginaResenas>empty());
             }
-            
-            // Obtener docente actual
-            DocenteEntity docente = doc.toObject(DocenteEntity.class);
-            if (docente == null) {
-                return Optional.empty();
+            if (!tieneResenasEmbebidas(encontrado.get())) {
+                return pagina.thenApply(Optional::of);
             }
-            docente.setId(doc.getId());
-            
-            // Actualizar campos
-            if (docenteRequest.getNombre() != null) {
-                docente.setNombre(docenteRequest.getNombre());
-            }
-            if (docenteRequest.getMaterias() != null) {
-                docente.setMaterias(docenteRequest.getMaterias());
+            // Documento viejo: la pagina pedida salio vacia, se migra y se vuelve a leer
+            return CompletableFuture.supplyAsync(() -> migrarResenasEmbebidas(encontrado.get()),
+                            DocenteRepository.EJECUTOR_BLOQUEANTE)
+                    .thenCompose(migrado -> cacheResenas.obtener(id, desde, limite))
+                    .thenApply(Optional::of);
+        });
+    }
+    
+    // 1.5 Reseñas en el orden pedido (likes, recientes, estrellas), servidas
+    // desde las listas ordenadas del docente
+    public CompletableFuture<Optional<PaginaResenas>> getResenasOrdenadasAsync(String id, OrdenResenas orden,
+            String cursor, int limite) {
+        return getDocenteByIdAsync(id).thenCompose(encontrado -> {
+            if (encontrado.isEmpty()) {
+                return CompletableFuture.completedFuture(Optional.<PaginaResenas>empty());
             }
-            
-            // Guardar cambios
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("nombre", docente.getNombre());
-            updates.put("materias", docente.getMaterias());
-            
-            docenteRef.update(updates).get();
-            
-            return Optional.of(docente);
-            
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Error actualizando docente en Firestore", e);
+            // Documento viejo: las reseñas se pasan a la subcoleccion antes de cargarlas
+            CompletableFuture<DocenteEntity> preparado = tieneResenasEmbebidas(encontrado.get())
+                    ? CompletableFuture.supplyAsync(() -> migrarResenasEmbebidas(encontrado.get()),
+                            DocenteRepository.EJECUTOR_BLOQUEANTE)
+                    : CompletableFuture.completedFuture(encontrado.get());
+            return preparado.thenCompose(docente -> ordenesResenas.pagina(id, docente.getCantResenas(), orden,
+                            cursor, limite))
+                    .thenApply(Optional::of);
+        });
+    }
+    
+    // 2. Docente por ID: si esta en cache el future ya viene completo
+    public CompletableFuture<Optional<DocenteEntity>> getDocenteByIdAsync(String id) {
+        return docenteCache.buscarDocente(id);
+    }
+    
+    // 3. Agregar reseña
+    public CompletableFuture<Optional<DocenteEntity>> agregarResenaAsync(String docenteId, ResenaRequestDTO resenaRequest) {
+        return agregarResenaAsync(docenteId, resenaRequest, null);
+    }
+    
+    // 3.1 Agregar reseña una sola vez: un reintento (misma Idempotency-Key) o
+    // una segunda reseña del mismo email al mismo docente devuelve el resultado
+    // de la primera sin escribir nada (ver RegistroIdempotencia)
+    public CompletableFuture<Optional<DocenteEntity>> agregarResenaAsync(String docenteId, ResenaRequestDTO resenaRequest,
+            String claveIdempotencia) {
+        String idResena = RegistroIdempotencia.idResena(docenteId, claveIdempotencia, resenaRequest.getEmail());
+        if (idResena == null) {
+            return escribirResenaAsync(docenteId, resenaRequest, null);
         }
+        return registroIdempotencia.unaVez(docenteId, claveIdempotencia, resenaRequest.getEmail(), () ->
+                CompletableFuture.supplyAsync(() -> docenteRepository.findResena(docenteId, idResena),
+                                DocenteRepository.EJECUTOR_BLOQUEANTE)
+                        // Ya escrita (antes de la ventana del registro o por otra instancia)
+                        .thenCompose(existente -> existente.isPresent()
+                                ? getDocenteByIdAsync(docenteId)
+                                : escribirResenaAsync(docenteId, resenaRequest, idResena)
+                                        // Otra instancia la creo entre la lectura y el commit
+                                        .exceptionallyCompose(error -> esResenaExistente(error)
+                                                ? getDocenteByIdAsync(docenteId)
+                                                : CompletableFuture.failedFuture(error))));
     }
     
-    // 8. Eliminar docente
-    public boolean eliminarDocente(String id) {
-        try {
-            DocumentReference docenteRef = docentesCollection.document(id);
-            DocumentSnapshot doc = docenteRef.get().get();
-            
-            if (!doc.exists()) {
-                return false;
+    // idResena null: id al azar
+    private CompletableFuture<Optional<DocenteEntity>> escribirResenaAsync(String docenteId, ResenaRequestDTO resenaRequest,
+            String idResena) {
+        return getDocenteByIdAsync(docenteId).thenCompose(docenteOpt -> {
+            if (docenteOpt.isEmpty()) {
+                return CompletableFuture.completedFuture(Optional.<DocenteEntity>empty());
             }
-            
-            docenteRef.delete().get();
-            return true;
-            
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Error eliminando docente en Firestore", e);
-        }
+            validarResena(resenaRequest);
+            
+            // Migracion y agregados faltantes (solo documentos viejos) fuera del hilo del request
+            DocenteEntity encontrado = docenteOpt.get();
+            CompletableFuture<DocenteEntity> preparado = tieneResenasEmbebidas(encontrado) || !tieneAgregados(encontrado)
+                    ? CompletableFuture.supplyAsync(() -> asegurarAgregados(migrarResenasEmbebidas(encontrado)),
+                            DocenteRepository.EJECUTOR_BLOQUEANTE)
+                    : CompletableFuture.completedFuture(encontrado);
+            
+            ResenaEntity nuevaResena = nuevaResena(resenaRequest);
+            if (idResena != null) {
+                nuevaResena.setId(idResena);
+            }
+            // Actualizar el cache toma su lock: no en el hilo de gRPC que completa
+            // los futures de Firestore. Cuelga de la confirmacion de la escritura
+            // y no del plazo del request: si el plazo vence y el commit igual
+            // termina bien, el cache queda al dia.
+            CompletableFuture<Optional<DocenteEntity>> aplicada = preparado.thenComposeAsync(docente ->
+                    escrituraDiferida.escribirAsync(docenteId, nuevaResena).thenApplyAsync(escrita -> {
+                        ordenesResenas.agregar(docenteId, nuevaResena);
+                        return Optional.of(sumarResenaEnCache(docenteId, new DocenteEntity(docente),
+                                nuevaResena.getEstrellas()));
+                    }, DocenteRepository.EJECUTOR_BLOQUEANTE), DocenteRepository.EJECUTOR_BLOQUEANTE);
+            // copy: el TimeoutException no debe cancelar la actualizacion de arriba
+            return aplicada.copy().orTimeout(escrituraDiferida.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        });
     }
     
-    // 9. Buscar docentes por nombre
-    public List<DocenteEntity> buscarPorNombre(String nombre) {
-        try {
-            Query query = docentesCollection
-                .whereGreaterThanOrEqualTo("nombre", nombre)
-                .whereLessThanOrEqualTo("nombre", nombre + "\uf8ff");
-            
-            ApiFuture<QuerySnapshot> future = query.get();
-            QuerySnapshot snapshot = future.get();
-            
-            List<DocenteEntity> docentes = new ArrayList<>();
-            for (DocumentSnapshot doc : snapshot.getDocuments()) {
-                DocenteEntity docente = doc.toObject(DocenteEntity.class);
-                if (docente != null) {
-                    docente.setId(doc.getId());
-                    docentes.add(docente);
+    // 7. Actualizar docente
+    public CompletableFuture<Optional<DocenteEntity>> actualizarDocenteAsync(String id, DocenteRequestDTO docenteRequest) {
+        return docenteRepository.findByIdAsync(id).thenCompose(docenteOpt -> {
+            if (docenteOpt.isEmpty()) {
+                return CompletableFuture.completedFuture(Optional.<DocenteEntity>empty());
+            }
+            DocenteEntity docente = docenteOpt.get();
+            aplicarCambios(docente, docenteRequest);
+            
+            // Actualizar el cache toma su lock: fuera del hilo de gRPC
+            return docenteRepository.updateAsync(id, camposEditables(docente)).thenApplyAsync(actualizado -> {
+                docenteCache.actualizarDocenteIndividualConDatos(id, docente);
+                return Optional.of(docente);
+            }, DocenteRepository.EJECUTOR_BLOQUEANTE);
+        });
+    }
+    
+    // 8. Eliminar docente
+    // Primero se comprueba que exista y despues se borra (leidos a la vez, la
+    // lectura podia ver el borrado y responder 404). El cache se limpia igual
+    // si no existe: lo pudo haber borrado otra instancia.
+    public CompletableFuture<Boolean> eliminarDocenteAsync(String id) {
+        return docenteRepository.findByIdAsync(id).thenComposeAsync(docente -> {
+            if (docente.isEmpty()) {
+                if (docenteCache.getDocenteById(id).isPresent()) {
+                    quitarDeCache(id);
                 }
+                return CompletableFuture.completedFuture(false);
             }
-            
-            // Ordenar por nombre
-            docentes.sort(Comparator.comparing(DocenteEntity::getNombre));
-            return docentes;
-            
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Error buscando docentes por nombre en Firestore", e);
+            return docenteRepository.deleteByIdAsync(id)
+                    .whenCompleteAsync((nada, error) -> quitarDeCache(id), DocenteRepository.EJECUTOR_BLOQUEANTE)
+                    .thenApply(nada -> true);
+        }, DocenteRepository.EJECUTOR_BLOQUEANTE);
+    }
+    
+    // ============ MÉTODOS PRIVADOS ============
+    
+    private void validarResena(ResenaRequestDTO resenaRequest) {
+        if (resenaRequest.getEstrellas() == null || 
+            resenaRequest.getEstrellas() < 1 || 
+            resenaRequest.getEstrellas() > 5) {
+            throw new IllegalArgumentException("Las estrellas deben estar entre 1 y 5");
         }
     }
     
-    // 10. Cargar docentes iniciales
-    public List<DocenteEntity> cargarDocentesIniciales(List<DocenteRequestDTO> docentesRequest) {
-        List<DocenteEntity> docentesCreados = new ArrayList<>();
-        
-        try {
-            for (DocenteRequestDTO dto : docentesRequest) {
-                DocumentReference nuevoDoc = docentesCollection.document();
-                String nuevoId = nuevoDoc.getId();
-                
-                DocenteEntity docente = new DocenteEntity();
-                docente.setId(nuevoId);
-                docente.setNombre(dto.getNombre());
-                docente.setMaterias(dto.getMaterias() != null ? 
-                    dto.getMaterias() : new ArrayList<>());
-                docente.setPuntaje(0.0);
-                docente.setCantResenas(0);
-                docente.setResenas(new ArrayList<>());
-                
-                // Guardar en Firestore
-                nuevoDoc.set(docente).get();
-                
-                docentesCreados.add(docente);
-            }
-            return docentesCreados;
-            
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Error cargando docentes iniciales en Firestore", e);
+    private ResenaEntity nuevaResena(ResenaRequestDTO resenaRequest) {
+        return new ResenaEntity(
+            resenaRequest.getEstudiante(),
+            resenaRequest.getComentario(),
+            resenaRequest.getEstrellas(),
+            resenaRequest.getPhoto(),
+            resenaRequest.getEmail()
+        );
+    }
+    
+    // Actualiza el cache con los mismos incrementos que se escribieron, sobre la
+    // version vigente (otra reseña del mismo lote puede haberla cambiado).
+    // docente es una copia: solo se usa si no estaba en cache.
+    private DocenteEntity sumarResenaEnCache(String docenteId, DocenteEntity docente, int estrellas) {
+        Optional<DocenteEntity> actualizado = docenteCache.actualizarDocente(docenteId, actual -> {
+            sumarResena(actual, estrellas);
+            return actual;
+        });
+        if (actualizado.isPresent()) {
+            return actualizado.get();
         }
+        sumarResena(docente, estrellas);
+        docenteCache.actualizarDocenteIndividualConDatos(docenteId, docente);
+        return docente;
     }
     
-    // Método para forzar refresh del cache
-    public void refreshCache() {
-        System.out.println("Forzando refresh del cache...");
-        docenteCache.refreshCache();
+    private static boolean esResenaExistente(Throwable error) {
+        Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return causa instanceof ResenaExistenteException;
     }
     
-    // Métricas del cache (para debug)
-    public Map<String, Object> getCacheStats() {
-        return Map.of(
-            "size", docenteCache.getCacheSize(),
-            "lastUpdate", new Date(docenteCache.getLastUpdate()),
-            "ttlHours", 24,
-            "status", "ACTIVE"
-        );
+    private void quitarDeCache(String id) {
+        docenteCache.eliminarDocenteIndividual(id);
+        ordenesResenas.invalidar(id);
     }
     
-    // ============ MÉTODOS PRIVADOS ============
+    private void aplicarCambios(DocenteEntity docente, DocenteRequestDTO docenteRequest) {
+        if (docenteRequest.getNombre() != null) {
+            docente.setNombre(docenteRequest.getNombre());
+        }
+        if (docenteRequest.getMaterias() != null) {
+            docente.setMaterias(docenteRequest.getMaterias());
+        }
+    }
     
-    private void calcularPuntajePromedio(DocenteEntity docente) {
-        if (docente.getResenas() == null || docente.getResenas().isEmpty()) {
-            docente.setPuntaje(0.0);
-            return;
+    private Map<String, Object> camposEditables(DocenteEntity docente) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("nombre", docente.getNombre());
+        updates.put("materias", docente.getMaterias());
+        return updates;
+    }
+    
+    private boolean tieneResenasEmbebidas(DocenteEntity docente) {
+        return docente.getResenas() != null && !docente.getResenas().isEmpty();
+    }
+    
+    // Si el docente todavia tiene el array "resenas" embebido (formato viejo),
+    // lo pasa a docentes/{id}/resenas y devuelve la version sin el array
+    private DocenteEntity migrarResenasEmbebidas(DocenteEntity docente) {
+        if (!tieneResenasEmbebidas(docente)) {
+            return docente;
         }
         
-        double suma = 0;
+        List<ResenaEntity> embebidas = new ArrayList<>(docente.getResenas().size());
         for (ResenaEntity resena : docente.getResenas()) {
-            suma += resena.getEstrellas();
+            if (resena.getId() == null) {
+                resena.setId(UUID.randomUUID().toString());
+            }
+            if (resena.getLikes() == null) {
+                resena.setLikes(0);
+            }
+            if (resena.getFecha() == null) {
+                resena.setFecha(Timestamp.now());
+            }
+            embebidas.add(resena);
         }
         
-        double promedio = suma / docente.getResenas().size();
-        // Redondear a 1 decimal
-        docente.setPuntaje(Math.round(promedio * 10.0) / 10.0);
+        // De paso se recalculan los agregados con las reseñas reales
+        Map<String, Long> histograma = DocenteEntity.histogramaVacio();
+        for (ResenaEntity resena : embebidas) {
+            histograma.computeIfPresent(String.valueOf(resena.getEstrellas()), (clave, cant) -> cant + 1);
+        }
+        DocenteEntity migrado = new DocenteEntity(docente);
+        aplicarHistograma(migrado, histograma);
+        docenteRepository.migrarResenasEmbebidas(docente.getId(), embebidas, camposAgregados(migrado));
+        
+        migrado.setResenas(new ArrayList<>());
+        docenteCache.actualizarDocenteIndividualConDatos(migrado.getId(), migrado);
+        log.info("Docente {}: {} reseñas migradas a subcoleccion", docente.getId(), embebidas.size());
+        return migrado;
+    }
+    
+    // Agregados en O(1): mismos incrementos que se mandan a Firestore
+    private void sumarResena(DocenteEntity docente, int estrellas) {
+        docente.setCantResenas(docente.getCantResenas() + 1);
+        docente.setSumaEstrellas(docente.getSumaEstrellas() + estrellas);
+        docente.getHistograma().merge(String.valueOf(estrellas), 1L, Long::sum);
+        calcularPuntajePromedio(docente);
+    }
+    
+    private boolean tieneAgregados(DocenteEntity docente) {
+        return docente.getSumaEstrellas() != null && docente.getHistograma() != null
+                && docente.getCantResenas() != null;
+    }
+    
+    // Documentos anteriores a los agregados: se calculan una sola vez
+    // contando la subcoleccion y se guardan
+    private DocenteEntity asegurarAgregados(DocenteEntity docente) {
+        if (tieneAgregados(docente)) {
+            return docente;
+        }
+        
+        boolean sinResenas = docente.getCantResenas() == null || docente.getCantResenas() == 0;
+        Map<String, Long> histograma = sinResenas
+                ? DocenteEntity.histogramaVacio()
+                : docenteRepository.histogramaDeResenas(docente.getId());
+        
+        DocenteEntity completo = new DocenteEntity(docente);
+        aplicarHistograma(completo, histograma);
+        docenteRepository.update(completo.getId(), camposAgregados(completo));
+        docenteCache.actualizarDocenteIndividualConDatos(completo.getId(), completo);
+        return completo;
+    }
+    
+    private void aplicarHistograma(DocenteEntity docente, Map<String, Long> histograma) {
+        long cant = 0;
+        long suma = 0;
+        for (Map.Entry<String, Long> entrada : histograma.entrySet()) {
+            cant += entrada.getValue();
+            suma += Integer.parseInt(entrada.getKey()) * entrada.getValue();
+        }
+        docente.setHistograma(histograma);
+        docente.setSumaEstrellas(suma);
+        docente.setCantResenas((int) cant);
+        calcularPuntajePromedio(docente);
+    }
+    
+    private Map<String, Object> camposAgregados(DocenteEntity docente) {
+        Map<String, Object> campos = new HashMap<>();
+        campos.put("cantResenas", docente.getCantResenas());
+        campos.put("sumaEstrellas", docente.getSumaEstrellas());
+        campos.put("histograma", docente.getHistograma());
+        campos.put("puntaje", docente.getPuntaje());
+        return campos;
+    }
+    
+    private DocenteEntity nuevoDocente(String id, DocenteRequestDTO dto) {
+        DocenteEntity docente = new DocenteEntity();
+        docente.setId(id);
+        docente.setNombre(dto.getNombre());
+        docente.setMaterias(dto.getMaterias() != null ? 
+            dto.getMaterias() : new ArrayList<>());
+        docente.setPuntaje(0.0);
+        docente.setCantResenas(0);
+        docente.setSumaEstrellas(0L);
+        docente.setHistograma(DocenteEntity.histogramaVacio());
+        docente.setResenas(new ArrayList<>());
+        return docente;
+    }
+    
+    // O(1): a partir de los agregados, sin recorrer las reseñas
+    private void calcularPuntajePromedio(DocenteEntity docente) {
+        long cant = docente.getCantResenas() != null ? docente.getCantResenas() : 0;
+        long suma = docente.getSumaEstrellas() != null ? docente.getSumaEstrellas() : 0;
+        docente.setPuntaje(DocenteEntity.calcularPuntaje(suma, cant));
     }
 }
\ No newline at end of file
@@ -0,0 +1,213 @@
+package com.affinityteach.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.affinityteach.model.entity.ResenaEntity;
+import com.affinityteach.repository.DocenteRepository;
+import com.affinityteach.repository.ResenaNueva;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Escritura diferida (write-behind) de reseñas nuevas. Junta las que llegan
+// dentro de una ventana corta, las agrupa por docente (un solo update de
+// agregados por docente) y las escribe en un WriteBatch; despues libera a
+// los requests que esperaban. Si una reseña no se puede escribir (su docente
+// fue borrado) falla solo su request, no el resto del lote. Deshabilitada,
+// cada reseña se escribe sola y el future se completa cuando Firestore confirma.
+@Component
+public class EscrituraDiferida {
+	// Cada reseña es un create y cada docente un update: 450 operaciones como maximo
+	private static final int MAX_RESENAS_LOTE = 225;
+
+	private final DocenteRepository docenteRepository;
+	private final boolean habilitada;
+	private final long ventanaMs;
+	private final int maxLote;
+	private final long timeoutMs;
+	private final BlockingQueue<Pendiente> cola;
+
+	private final Timer tiempoCommit;
+	private final DistributionSummary tamanioLote;
+	private final Counter fallidas;
+	private final Counter rechazadas;
+
+	private volatile boolean detenida = false;
+	private Thread procesador;
+
+	public EscrituraDiferida(DocenteRepository docenteRepository, MeterRegistry meterRegistry,
+			@Value("${affinityteach.write-behind.enabled:false}") boolean habilitada,
+			@Value("${affinityteach.write-behind.ventana-ms:20}") long ventanaMs,
+			@Value("${affinityteach.write-behind.max-lote:200}") int maxLote,
+			@Value("${affinityteach.write-behind.max-cola:5000}") int maxCola,
+			@Value("${affinityteach.write-behind.timeout-ms:5000}") long timeoutMs) {
+		this.docenteRepository = docenteRepository;
+		this.habilitada = habilitada;
+		this.ventanaMs = ventanaMs;
+		this.maxLote = Math.max(1, Math.min(maxLote, MAX_RESENAS_LOTE));
+		this.timeoutMs = timeoutMs;
+		this.cola = new ArrayBlockingQueue<>(maxCola);
+
+		Gauge.builder("affinityteach.escritura.cola", cola, BlockingQueue::size)
+				.description("Reseñas esperando ser escritas")
+				.register(meterRegistry);
+		this.tiempoCommit = Timer.builder("affinityteach.escritura.commit")
+				.description("Duracion de cada WriteBatch de reseñas")
+				.publishPercentiles(0.5, 0.95, 0.99)
+				.register(meterRegistry);
+		this.tamanioLote = DistributionSummary.builder("affinityteach.escritura.lote")
+				.description("Reseñas por WriteBatch")
+				.register(meterRegistry);
+		this.fallidas = Counter.builder("affinityteach.escritura.fallidas")
+				.description("Reseñas que no se pudieron escribir")
+				.register(meterRegistry);
+		this.rechazadas = Counter.builder("affinityteach.escritura.rechazadas")
+				.description("Reseñas rechazadas por cola llena")
+				.register(meterRegistry);
+	}
+
+	@PostConstruct
+	public void iniciar() {
+		if (habilitada) {
+			procesador = Thread.ofPlatform().name("escritura-diferida").daemon().start(this::procesar);
+		}
+	}
+
+	@PreDestroy
+	public void detener() throws InterruptedException {
+		detenida = true;
+		if (procesador != null) {
+			procesador.interrupt();
+			procesador.join(timeoutMs);
+		}
+		// Lo que quedo en la cola se escribe antes de apagar
+		List<Pendiente> restantes = new ArrayList<>();
+		cola.drainTo(restantes);
+		for (int desde = 0; desde < restantes.size(); desde += maxLote) {
+			esperarCommit(restantes.subList(desde, Math.min(desde + maxLote, restantes.size())));
+		}
+	}
+
+	// Escribe la reseña (directo o en el proximo lote); el future se completa
+	// cuando Firestore confirma. No tiene plazo: lo que dependa de la escritura
+	// tiene que ver tambien las que terminan tarde. El plazo del request
+	// (getTimeoutMs) lo pone quien responde.
+	public CompletableFuture<Void> escribirAsync(String docenteId, ResenaEntity resena) {
+		Pendiente pendiente = new Pendiente(new ResenaNueva(docenteId, resena), new CompletableFuture<>());
+		if (!habilitada) {
+			commit(List.of(pendiente));
+		} else if (detenida || !cola.offer(pendiente)) {
+			rechazadas.increment();
+			pendiente.confirmacion().completeExceptionally(
+					new ColaEscrituraLlenaException("Demasiadas reseñas en espera, reintente en unos segundos"));
+		}
+		return pendiente.confirmacion();
+	}
+
+	public long getTimeoutMs() {
+		return timeoutMs;
+	}
+
+	public boolean isHabilitada() {
+		return habilitada;
+	}
+
+	public int getEnCola() {
+		return cola.size();
+	}
+
+	// ============ MÉTODOS PRIVADOS ============
+
+	private void procesar() {
+		while (!detenida) {
+			try {
+				Pendiente primera = cola.poll(500, TimeUnit.MILLISECONDS);
+				if (primera == null) {
+					continue;
+				}
+				List<Pendiente> lote = new ArrayList<>(maxLote);
+				lote.add(primera);
+
+				// Ventana corta para juntar las que llegan detras
+				long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+				while (lote.size() < maxLote) {
+					cola.drainTo(lote, maxLote - lote.size());
+					long restante = limite - System.nanoTime();
+					if (lote.size() >= maxLote || restante <= 0) {
+						break;
+					}
+					Pendiente siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+					if (siguiente == null) {
+						break;
+					}
+					lote.add(siguiente);
+				}
+				// Un lote a la vez: el siguiente junta lo que llego mientras tanto
+				esperarCommit(lote);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private CompletableFuture<Map<String, RuntimeException>> commit(List<Pendiente> lote) {
+		List<ResenaNueva> resenas = new ArrayList<>(lote.size());
+		CompletableFuture<Map<String, RuntimeException>> escritura;
+		try {
+			for (Pendiente pendiente : lote) {
+				resenas.add(pendiente.resena());
+			}
+			escritura = docenteRepository.agregarResenasAsync(resenas);
+		} catch (RuntimeException e) {
+			escritura = CompletableFuture.failedFuture(e);
+		}
+
+		tamanioLote.record(lote.size());
+		Timer.Sample muestra = Timer.start();
+		return escritura.whenComplete((fallidasEnLote, error) -> {
+			muestra.stop(tiempoCommit);
+			if (error == null) {
+				for (Pendiente pendiente : lote) {
+					RuntimeException fallo = fallidasEnLote.get(pendiente.resena().resena().getId());
+					if (fallo != null) {
+						fallidas.increment();
+						pendiente.confirmacion().completeExceptionally(fallo);
+					} else {
+						pendiente.confirmacion().complete(null);
+					}
+				}
+				return;
+			}
+			Throwable causa = error instanceof CompletionException && error.getCause() != null
+					? error.getCause() : error;
+			fallidas.increment(lote.size());
+			for (Pendiente pendiente : lote) {
+				pendiente.confirmacion().completeExceptionally(causa);
+			}
+		});
+	}
+
+	// Los errores ya quedaron en las confirmaciones de cada pendiente
+	private void esperarCommit(List<Pendiente> lote) {
+		commit(lote).handle((resultado, error) -> null).join();
+	}
+
+	private record Pendiente(ResenaNueva resena, CompletableFuture<Void> confirmacion) {
+	}
+}
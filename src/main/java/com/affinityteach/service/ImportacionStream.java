@@ -0,0 +1,110 @@
+package com.affinityteach.service;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.affinityteach.model.dto.DocenteRequestDTO;
+import com.affinityteach.model.dto.ItemImportacionDTO;
+import com.affinityteach.model.dto.ResultadoImportacionDTO;
+import com.affinityteach.model.dto.ResumenImportacionDTO;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+// Importacion de docentes leyendo el cuerpo de a un registro (pull parser).
+// Acepta un array JSON o NDJSON (un objeto por linea) y escribe por tandas a
+// medida que llegan, asi la memoria no depende del tamaño del archivo.
+@Component
+public class ImportacionStream {
+	private static final Logger log = LoggerFactory.getLogger(ImportacionStream.class);
+	private static final int MAX_ERRORES_INFORMADOS = 1000;
+
+	private final DocenteService docenteService;
+	private final ObjectMapper objectMapper;
+	// Lee un registro y deja el parser parado ahi (el resto del cuerpo sigue)
+	private final ObjectReader lectorRegistro;
+	private final int tamanioTanda;
+
+	public ImportacionStream(DocenteService docenteService, ObjectMapper objectMapper,
+			@Value("${affinityteach.importacion.tanda:500}") int tamanioTanda) {
+		this.docenteService = docenteService;
+		this.objectMapper = objectMapper;
+		this.lectorRegistro = objectMapper.readerFor(DocenteRequestDTO.class)
+				.without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+		this.tamanioTanda = Math.max(1, tamanioTanda);
+	}
+
+	public ResumenImportacionDTO importar(InputStream entrada) {
+		Progreso progreso = new Progreso();
+		List<DocenteRequestDTO> tanda = new ArrayList<>(tamanioTanda);
+
+		try (JsonParser parser = objectMapper.createParser(entrada)) {
+			JsonToken token = parser.nextToken();
+			if (token == JsonToken.START_ARRAY) {
+				token = parser.nextToken();
+			}
+			while (token != null && token != JsonToken.END_ARRAY) {
+				if (token != JsonToken.START_OBJECT) {
+					throw new IllegalArgumentException("Se esperaba un objeto en el registro " + progreso.leidos
+							+ " (" + progreso.creados + " docentes ya importados)");
+				}
+				tanda.add(lectorRegistro.readValue(parser));
+				progreso.leidos++;
+				if (tanda.size() == tamanioTanda) {
+					escribir(tanda, progreso);
+				}
+				token = parser.nextToken();
+			}
+			escribir(tanda, progreso);
+		} catch (JacksonException e) {
+			throw new IllegalArgumentException("JSON invalido en el registro " + progreso.leidos
+					+ " (" + progreso.creados + " docentes ya importados): " + e.getOriginalMessage(), e);
+		}
+
+		log.info("Importacion en streaming: {} registros, {} creados", progreso.procesados, progreso.creados);
+		return new ResumenImportacionDTO(progreso.procesados, progreso.creados, progreso.fallidos,
+				progreso.errores, progreso.erroresOmitidos);
+	}
+
+	private void escribir(List<DocenteRequestDTO> tanda, Progreso progreso) {
+		if (tanda.isEmpty()) {
+			return;
+		}
+		ResultadoImportacionDTO resultado = docenteService.importarDocentes(tanda);
+		for (ItemImportacionDTO item : resultado.getItems()) {
+			if (item.isCreado()) {
+				continue;
+			}
+			if (progreso.errores.size() < MAX_ERRORES_INFORMADOS) {
+				// Indice respecto del archivo completo, no de la tanda
+				progreso.errores.add(new ItemImportacionDTO((int) (progreso.procesados + item.getIndice()),
+						item.getId(), item.getNombre(), false, item.getError()));
+			} else {
+				progreso.erroresOmitidos++;
+			}
+		}
+		progreso.procesados += tanda.size();
+		progreso.creados += resultado.getCreados();
+		progreso.fallidos += resultado.getFallidos();
+		tanda.clear();
+	}
+
+	private static class Progreso {
+		long leidos;
+		long procesados;
+		long creados;
+		long fallidos;
+		long erroresOmitidos;
+		final List<ItemImportacionDTO> errores = new ArrayList<>();
+	}
+}
@@ -0,0 +1,133 @@
+package com.affinityteach.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Reseñas enviadas una sola vez. Indice en memoria (docente, hash) -> resultado
+// de la primera presentacion, por Idempotency-Key y por email: un reintento o
+// un duplicado (aun en vuelo) recibe el mismo resultado sin escribir de nuevo.
+// Solo se guardan hashes, no emails ni claves.
+//
+// El id de la reseña sale del mismo hash: pasada la ventana del indice (o en
+// otra instancia) el duplicado se detecta con una lectura puntual del
+// documento en vez de escribir otra reseña.
+@Component
+public class RegistroIdempotencia {
+	private static final Duration VENTANA = Duration.ofHours(24);
+	public static final int MAX_LARGO_CLAVE = 255;
+
+	private final Cache<Clave, CompletableFuture<Optional<DocenteEntity>>> enviadas;
+
+	public RegistroIdempotencia(@Value("${affinityteach.resenas.idempotencia.max:100000}") long maxEntradas) {
+		this.enviadas = Caffeine.newBuilder()
+				.maximumSize(maxEntradas)
+				.expireAfterWrite(VENTANA)
+				.build();
+	}
+
+	// Id de la reseña: del email si viene (una reseña por estudiante y docente),
+	// si no de la Idempotency-Key; null si no hay ninguno (id al azar)
+	public static String idResena(String docenteId, String claveIdempotencia, String email) {
+		String base = email(email) != null ? "e:" + email(email)
+				: claveIdempotencia != null && !claveIdempotencia.isBlank() ? "k:" + claveIdempotencia : null;
+		if (base == null) {
+			return null;
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(hash(docenteId, base));
+	}
+
+	// La primera presentacion ejecuta escribir; las demas (por clave o por
+	// email) reciben su future. Si falla o el docente no existe no se recuerda,
+	// para que el reintento pueda volver a intentarlo.
+	public CompletableFuture<Optional<DocenteEntity>> unaVez(String docenteId, String claveIdempotencia, String email,
+			Supplier<CompletableFuture<Optional<DocenteEntity>>> escribir) {
+		Clave porEmail = email(email) != null ? new Clave(docenteId, hash(docenteId, "e:" + email(email))) : null;
+		Clave porClave = claveIdempotencia != null && !claveIdempotencia.isBlank()
+				? new Clave(docenteId, hash(docenteId, "k:" + claveIdempotencia))
+				: null;
+		// Con email, la clave del header es un segundo nombre de la misma presentacion
+		Clave principal = porEmail != null ? porEmail : porClave;
+		Clave secundaria = porEmail != null ? porClave : null;
+		if (principal == null) {
+			return escribir.get();
+		}
+
+		if (secundaria != null) {
+			CompletableFuture<Optional<DocenteEntity>> previa = enviadas.getIfPresent(secundaria);
+			if (previa != null) {
+				return previa;
+			}
+		}
+		CompletableFuture<Optional<DocenteEntity>> nueva = new CompletableFuture<>();
+		CompletableFuture<Optional<DocenteEntity>> previa = enviadas.asMap().putIfAbsent(principal, nueva);
+		if (previa != null) {
+			return previa;
+		}
+		if (secundaria != null) {
+			enviadas.put(secundaria, nueva);
+		}
+
+		nueva.whenComplete((resultado, error) -> {
+			if (error != null || resultado.isEmpty()) {
+				enviadas.asMap().remove(principal, nueva);
+				if (secundaria != null) {
+					enviadas.asMap().remove(secundaria, nueva);
+				}
+			}
+		});
+		try {
+			escribir.get().whenComplete((resultado, error) -> {
+				if (error != null) {
+					nueva.completeExceptionally(error);
+				} else {
+					nueva.complete(resultado);
+				}
+			});
+		} catch (RuntimeException e) {
+			nueva.completeExceptionally(e);
+		}
+		return nueva;
+	}
+
+	public long getCantidad() {
+		return enviadas.estimatedSize();
+	}
+
+	private static String email(String email) {
+		return email != null && !email.isBlank() ? email.trim().toLowerCase(Locale.ROOT) : null;
+	}
+
+	// 128 bits de SHA-256 sobre docente y valor
+	private static byte[] hash(String docenteId, String valor) {
+		try {
+			MessageDigest sha = MessageDigest.getInstance("SHA-256");
+			sha.update(docenteId.getBytes(StandardCharsets.UTF_8));
+			sha.update((byte) 0);
+			return Arrays.copyOf(sha.digest(valor.getBytes(StandardCharsets.UTF_8)), 16);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 no disponible", e);
+		}
+	}
+
+	// El hash como clave (byte[] no sirve: compara por identidad)
+	private record Clave(String docenteId, String hash) {
+		Clave(String docenteId, byte[] hash) {
+			this(docenteId, Base64.getEncoder().encodeToString(hash));
+		}
+	}
+}
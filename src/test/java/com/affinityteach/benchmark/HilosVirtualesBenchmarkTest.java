@@ -0,0 +1,116 @@
+package com.affinityteach.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.affinityteach.AffinityTeachBackendApplication;
+
+// Techo de concurrencia con Firestore lento: muchos requests simultaneos a
+// GET /api/docentes/{id}/resenas, cada uno con una lectura lenta simulada en
+// el repositorio en memoria. Con el pool de Tomcat (200 hilos) el throughput
+// se frena en 200 / latencia; con hilos virtuales sigue a la concurrencia del
+// cliente hasta que se acaba la CPU. La latencia alta por defecto hace que el
+// techo se vea aun en una maquina de un nucleo (cliente y servidor juntos).
+//
+// No corre con el build normal:
+//   mvn test -Dbenchmark=true -Dtest=HilosVirtualesBenchmarkTest
+//   (opcionales: -Dbenchmark.latencia-ms=1000 -Dbenchmark.en-vuelo=1000 -Dbenchmark.requests=4000)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HilosVirtualesBenchmarkTest {
+	private static final Logger log = LoggerFactory.getLogger(HilosVirtualesBenchmarkTest.class);
+
+	private static final int LATENCIA_MS = Integer.getInteger("benchmark.latencia-ms", 1000);
+	private static final int EN_VUELO = Integer.getInteger("benchmark.en-vuelo", 1000);
+	private static final int REQUESTS = Integer.getInteger("benchmark.requests", 4000);
+	private static final int CALENTAMIENTO = REQUESTS / 4;
+
+	@Test
+	void comparaHilosDePlataformaConHilosVirtuales() throws Exception {
+		Resultado plataforma = medir(false);
+		Resultado virtuales = medir(true);
+
+		log.info("Techo de concurrencia ({} en vuelo, {} ms por lectura)", EN_VUELO, LATENCIA_MS);
+		log.info("hilos de plataforma: {}", plataforma);
+		log.info("hilos virtuales: {}", virtuales);
+	}
+
+	private Resultado medir(boolean hilosVirtuales) throws Exception {
+		try (ConfigurableApplicationContext app = new SpringApplicationBuilder(AffinityTeachBackendApplication.class)
+				.run("--spring.profiles.active=memory",
+						"--server.port=0",
+						"--spring.threads.virtual.enabled=" + hilosVirtuales,
+						"--affinityteach.memory.docentes=100",
+						"--affinityteach.memory.resenas=2000",
+						"--affinityteach.memory.latencia-ms=" + LATENCIA_MS,
+						"--logging.level.org.springframework.web=INFO")) {
+			int puerto = ((WebServerApplicationContext) app).getWebServer().getPort();
+			URI uri = URI.create("http://localhost:" + puerto + "/api/docentes/docente-00000001/resenas?limit=10");
+
+			try (HttpClient cliente = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+				disparar(cliente, uri, CALENTAMIENTO);
+				long inicio = System.nanoTime();
+				long[] latencias = disparar(cliente, uri, REQUESTS);
+				double segundos = (System.nanoTime() - inicio) / 1e9;
+				Arrays.sort(latencias);
+				return new Resultado(REQUESTS / segundos, percentil(latencias, 0.50), percentil(latencias, 0.99));
+			}
+		}
+	}
+
+	// Mantiene EN_VUELO requests simultaneos; devuelve la latencia de cada uno (ns)
+	private long[] disparar(HttpClient cliente, URI uri, int cantidad) throws Exception {
+		Semaphore enVuelo = new Semaphore(EN_VUELO);
+		List<Future<Long>> tareas = new ArrayList<>(cantidad);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < cantidad; i++) {
+				enVuelo.acquire();
+				tareas.add(executor.submit(() -> {
+					try {
+						long inicio = System.nanoTime();
+						HttpResponse<Void> respuesta = cliente.send(HttpRequest.newBuilder(uri).GET().build(),
+								HttpResponse.BodyHandlers.discarding());
+						assertEquals(200, respuesta.statusCode());
+						return System.nanoTime() - inicio;
+					} finally {
+						enVuelo.release();
+					}
+				}));
+			}
+		}
+		long[] latencias = new long[cantidad];
+		for (int i = 0; i < cantidad; i++) {
+			latencias[i] = tareas.get(i).get();
+		}
+		return latencias;
+	}
+
+	private static long percentil(long[] ordenadas, double p) {
+		return ordenadas[Math.min(ordenadas.length - 1, (int) (ordenadas.length * p))] / 1_000_000;
+	}
+
+	private record Resultado(double requestsPorSegundo, long p50Ms, long p99Ms) {
+		@Override
+		public String toString() {
+			return String.format("%.0f req/s, p50 %d ms, p99 %d ms", requestsPorSegundo, p50Ms, p99Ms);
+		}
+	}
+}
@@ -0,0 +1,354 @@
+package com.affinityteach.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.affinityteach.AffinityTeachBackendApplication;
+import com.affinityteach.model.entity.ResenaEntity;
+import com.affinityteach.repository.GeneradorDatosSinteticos;
+
+// Prueba de carga de /api/docentes contra el repositorio en memoria (perfil
+// memory, con latencia simulada de Firestore). Mezcla de operaciones con pesos
+// y carga abierta: los requests salen a ritmo fijo y la latencia se mide desde
+// el momento en que tenian que salir, asi una demora del servidor no se
+// esconde frenando al cliente. Los datos y la secuencia de operaciones salen
+// de la semilla, por lo que dos corridas con los mismos parametros piden lo mismo.
+//
+// Informa requests/s y p50/p95/p99 por operacion en el log, deja el detalle
+// en target/carga-result.json y falla si algun p99 pasa su presupuesto o si
+// los errores superan el maximo.
+//
+// Los presupuestos por defecto valen para la maquina de referencia: 1 vCPU
+// (Xeon), 5 GB, Java 21, cliente y servidor en la misma JVM, parametros por
+// defecto. Ahi tres corridas dieron p99 de porId entre 130 y 280 ms (el
+// cliente le saca CPU al servidor); cada presupuesto es ~1.5x el peor p99
+// medido. En otra maquina se escalan todos con -Dcarga.factor-presupuesto
+// (por ejemplo 0.25 con 4 nucleos libres) o se fija uno con -Dcarga.p99-ms.<op>.
+//
+// No corre con el build normal:
+//   mvn test -Dcarga=true -Dtest=PruebaCargaTest
+//   (opcionales: -Dcarga.rps=200 -Dcarga.duracion-s=30 -Dcarga.calentamiento-s=10
+//    -Dcarga.docentes=1000 -Dcarga.resenas=20000 -Dcarga.latencia-ms=10 -Dcarga.jitter-ms=10
+//    -Dcarga.mezcla=listar=5,porId=40,buscar=20,resena=15,like=15,importar=5
+//    -Dcarga.p99-ms.porId=50 -Dcarga.factor-presupuesto=1.0 -Dcarga.max-errores=0.01 -Dcarga.semilla=42)
+@EnabledIfSystemProperty(named = "carga", matches = "true")
+class PruebaCargaTest {
+	private static final Logger log = LoggerFactory.getLogger(PruebaCargaTest.class);
+
+	private static final int RPS = Integer.getInteger("carga.rps", 200);
+	private static final int DURACION_S = Integer.getInteger("carga.duracion-s", 30);
+	private static final int CALENTAMIENTO_S = Integer.getInteger("carga.calentamiento-s", 10);
+	private static final int DOCENTES = Integer.getInteger("carga.docentes", 1000);
+	private static final int RESENAS = Integer.getInteger("carga.resenas", 20_000);
+	private static final int LATENCIA_MS = Integer.getInteger("carga.latencia-ms", 10);
+	private static final int JITTER_MS = Integer.getInteger("carga.jitter-ms", 10);
+	private static final int EN_VUELO_MAX = Integer.getInteger("carga.en-vuelo", 2000);
+	private static final long SEMILLA = Long.getLong("carga.semilla", 42);
+	private static final double FACTOR_PRESUPUESTO = Double.parseDouble(
+			System.getProperty("carga.factor-presupuesto", "1.0"));
+	private static final double MAX_ERRORES = Double.parseDouble(System.getProperty("carga.max-errores", "0.01"));
+	private static final Path RESULTADO = Path.of(System.getProperty("carga.resultado", "target/carga-result.json"));
+
+	// Reseñas por docente que se guardan para los likes
+	private static final int RESENAS_CONOCIDAS = 20;
+	private static final String[] BUSQUEDAS = { "Ana", "Diaz", "Algebra", "Fisica", "Analisis", "Programacion",
+			"Castro", "Elena", "Quimica", "zzz" };
+
+	// Peso en la mezcla y presupuesto de p99 por defecto (ms, en la maquina de referencia)
+	enum Operacion {
+		LISTAR("listar", 5, 600),
+		POR_ID("porId", 40, 420),
+		BUSCAR("buscar", 20, 450),
+		RESENA("resena", 15, 800),
+		LIKE("like", 15, 500),
+		IMPORTAR("importar", 5, 500);
+
+		final String nombre;
+		final int pesoDefault;
+		final long p99DefaultMs;
+
+		Operacion(String nombre, int pesoDefault, long p99DefaultMs) {
+			this.nombre = nombre;
+			this.pesoDefault = pesoDefault;
+			this.p99DefaultMs = p99DefaultMs;
+		}
+
+		long presupuestoP99Ms() {
+			return Long.getLong("carga.p99-ms." + nombre, Math.round(p99DefaultMs * FACTOR_PRESUPUESTO));
+		}
+	}
+
+	private record DocenteConocido(String id, List<String> resenaIds) {
+	}
+
+	private static final class Mediciones {
+		final ConcurrentLinkedQueue<Long> latencias = new ConcurrentLinkedQueue<>();
+		final AtomicLong errores = new AtomicLong();
+	}
+
+	@Test
+	void mezclaDeOperacionesDentroDelPresupuesto() throws Exception {
+		List<DocenteConocido> docentes = docentesConocidos();
+		Map<Operacion, Integer> pesos = pesos();
+
+		try (ConfigurableApplicationContext app = new SpringApplicationBuilder(AffinityTeachBackendApplication.class)
+				.run("--spring.profiles.active=memory",
+						"--server.port=0",
+						"--affinityteach.memory.docentes=" + DOCENTES,
+						"--affinityteach.memory.resenas=" + RESENAS,
+						"--affinityteach.memory.semilla=" + SEMILLA,
+						"--affinityteach.memory.latencia-ms=" + LATENCIA_MS,
+						"--affinityteach.memory.jitter-ms=" + JITTER_MS,
+						"--affinityteach.log.tiempos.muestreo=0")) {
+			String base = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort()
+					+ "/api/docentes";
+
+			try (HttpClient cliente = HttpClient.newBuilder()
+					.executor(Executors.newVirtualThreadPerTaskExecutor())
+					.connectTimeout(Duration.ofSeconds(5))
+					.build()) {
+				SplittableRandom random = new SplittableRandom(SEMILLA);
+				disparar(cliente, base, docentes, pesos, random, CALENTAMIENTO_S);
+				long inicio = System.nanoTime();
+				Map<Operacion, Mediciones> mediciones = disparar(cliente, base, docentes, pesos, random, DURACION_S);
+				double segundos = (System.nanoTime() - inicio) / 1e9;
+
+				List<String> fallas = informar(mediciones, pesos, segundos);
+				assertTrue(fallas.isEmpty(), "Presupuesto excedido: " + String.join("; ", fallas));
+			}
+		}
+	}
+
+	// Carga abierta a RPS durante los segundos pedidos. Cada request registra
+	// su latencia desde el instante programado, no desde que salio.
+	private Map<Operacion, Mediciones> disparar(HttpClient cliente, String base, List<DocenteConocido> docentes,
+			Map<Operacion, Integer> pesos, SplittableRandom random, int segundos) throws InterruptedException {
+		Map<Operacion, Mediciones> mediciones = new EnumMap<>(Operacion.class);
+		for (Operacion op : Operacion.values()) {
+			mediciones.put(op, new Mediciones());
+		}
+		int pesoTotal = pesos.values().stream().mapToInt(Integer::intValue).sum();
+		long intervaloNs = 1_000_000_000L / RPS;
+		long cantidad = (long) RPS * segundos;
+		Semaphore enVuelo = new Semaphore(EN_VUELO_MAX);
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			long inicio = System.nanoTime();
+			for (long i = 0; i < cantidad; i++) {
+				long programado = inicio + i * intervaloNs;
+				long espera = programado - System.nanoTime();
+				if (espera > 0) {
+					LockSupport.parkNanos(espera);
+				}
+				Operacion op = elegir(pesos, pesoTotal, random);
+				HttpRequest request = armar(op, base, docentes, random);
+				Mediciones destino = mediciones.get(op);
+
+				enVuelo.acquire();
+				executor.execute(() -> {
+					try {
+						HttpResponse<Void> respuesta = cliente.send(request, HttpResponse.BodyHandlers.discarding());
+						if (respuesta.statusCode() >= 300) {
+							destino.errores.incrementAndGet();
+						}
+					} catch (IOException | InterruptedException e) {
+						destino.errores.incrementAndGet();
+					} finally {
+						destino.latencias.add(System.nanoTime() - programado);
+						enVuelo.release();
+					}
+				});
+			}
+		}
+		return mediciones;
+	}
+
+	private static Operacion elegir(Map<Operacion, Integer> pesos, int pesoTotal, SplittableRandom random) {
+		int r = random.nextInt(pesoTotal);
+		for (Map.Entry<Operacion, Integer> peso : pesos.entrySet()) {
+			r -= peso.getValue();
+			if (r < 0) {
+				return peso.getKey();
+			}
+		}
+		throw new IllegalStateException("Mezcla vacia");
+	}
+
+	private static HttpRequest armar(Operacion op, String base, List<DocenteConocido> docentes, SplittableRandom random) {
+		DocenteConocido docente = docentePopular(docentes, random);
+		return switch (op) {
+			case LISTAR -> get(base + "?vista=resumen");
+			case POR_ID -> get(base + "/" + docente.id());
+			case BUSCAR -> get(base + "/buscar?nombre="
+					+ URLEncoder.encode(BUSQUEDAS[random.nextInt(BUSQUEDAS.length)], StandardCharsets.UTF_8));
+			case RESENA -> post(base + "/" + docente.id() + "/resenas",
+					"{\"estudiante\":\"Carga " + random.nextInt(100_000) + "\",\"comentario\":\"Prueba de carga\","
+							+ "\"estrellas\":" + (1 + random.nextInt(5)) + "}");
+			case LIKE -> {
+				// Los docentes populares siempre tienen reseñas; si no, el primero
+				DocenteConocido conResenas = docente.resenaIds().isEmpty() ? docentes.get(0) : docente;
+				List<String> ids = conResenas.resenaIds();
+				yield post(base + "/" + conResenas.id() + "/resenas/" + ids.get(random.nextInt(ids.size())) + "/like", "");
+			}
+			case IMPORTAR -> post(base + "/importar-docentes", lote(random));
+		};
+	}
+
+	// Sesgada a los primeros docentes, que son los que tienen mas reseñas
+	private static DocenteConocido docentePopular(List<DocenteConocido> docentes, SplittableRandom random) {
+		double r = random.nextDouble();
+		return docentes.get((int) (r * r * docentes.size()));
+	}
+
+	private static String lote(SplittableRandom random) {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < 5; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"nombre\":\"Docente Carga ").append(random.nextInt(1_000_000))
+					.append("\",\"materias\":[\"").append(BUSQUEDAS[random.nextInt(6)]).append("\"]}");
+		}
+		return json.append(']').toString();
+	}
+
+	private static HttpRequest get(String uri) {
+		return HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(30)).GET().build();
+	}
+
+	private static HttpRequest post(String uri, String cuerpo) {
+		return HttpRequest.newBuilder(URI.create(uri))
+				.timeout(Duration.ofSeconds(30))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+				.build();
+	}
+
+	// Los mismos datos que genera el perfil memory con esta semilla (ids de
+	// docentes y algunas reseñas de cada uno para los likes)
+	private static List<DocenteConocido> docentesConocidos() {
+		List<DocenteConocido> docentes = new ArrayList<>(DOCENTES);
+		new GeneradorDatosSinteticos(SEMILLA).generar(DOCENTES, RESENAS, docente -> docentes.add(
+				new DocenteConocido(docente.getId(), docente.getResenas().stream()
+						.limit(RESENAS_CONOCIDAS)
+						.map(ResenaEntity::getId)
+						.toList())));
+		return docentes;
+	}
+
+	private static Map<Operacion, Integer> pesos() {
+		Map<Operacion, Integer> pesos = new EnumMap<>(Operacion.class);
+		for (Operacion op : Operacion.values()) {
+			pesos.put(op, op.pesoDefault);
+		}
+		String mezcla = System.getProperty("carga.mezcla");
+		if (mezcla != null && !mezcla.isBlank()) {
+			pesos.replaceAll((op, peso) -> 0);
+			for (String item : mezcla.split(",")) {
+				String[] partes = item.trim().split("=");
+				Operacion op = Arrays.stream(Operacion.values())
+						.filter(o -> o.nombre.equals(partes[0]))
+						.findFirst()
+						.orElseThrow(() -> new IllegalArgumentException("Operacion desconocida en carga.mezcla: " + partes[0]));
+				pesos.put(op, Integer.parseInt(partes[1]));
+			}
+		}
+		return pesos;
+	}
+
+	// Informa cada operacion en el log, escribe el JSON y devuelve los presupuestos excedidos
+	private static List<String> informar(Map<Operacion, Mediciones> mediciones, Map<Operacion, Integer> pesos,
+			double segundos) throws IOException {
+		List<String> fallas = new ArrayList<>();
+		StringBuilder json = new StringBuilder("{\"rps\":" + RPS + ",\"duracionS\":" + DURACION_S
+				+ ",\"docentes\":" + DOCENTES + ",\"resenas\":" + RESENAS + ",\"latenciaMs\":" + LATENCIA_MS
+				+ ",\"factorPresupuesto\":" + FACTOR_PRESUPUESTO + ",\"operaciones\":{");
+		long totalRequests = 0;
+		long totalErrores = 0;
+
+		log.info("Prueba de carga: {} req/s programados, {} s", RPS, DURACION_S);
+		for (Operacion op : Operacion.values()) {
+			if (pesos.get(op) == 0) {
+				continue;
+			}
+			Mediciones m = mediciones.get(op);
+			long[] latencias = m.latencias.stream().mapToLong(Long::longValue).sorted().toArray();
+			if (latencias.length == 0) {
+				continue;
+			}
+			long p50 = percentil(latencias, 0.50);
+			long p95 = percentil(latencias, 0.95);
+			long p99 = percentil(latencias, 0.99);
+			long max = latencias[latencias.length - 1] / 1_000_000;
+			long errores = m.errores.get();
+			long presupuesto = op.presupuestoP99Ms();
+			log.info("{}: {} requests ({} req/s), {} errores, p50 {} ms, p95 {} ms, p99 {} ms, max {} ms, presupuesto {} ms",
+					op.nombre, latencias.length, String.format(Locale.ROOT, "%.1f", latencias.length / segundos),
+					errores, p50, p95, p99, max, presupuesto);
+
+			if (p99 > presupuesto) {
+				fallas.add(op.nombre + " p99 " + p99 + " ms > " + presupuesto + " ms");
+			}
+			totalRequests += latencias.length;
+			totalErrores += errores;
+			json.append(totalRequests == latencias.length ? "" : ",")
+					.append('"').append(op.nombre).append("\":{")
+					.append("\"requests\":").append(latencias.length)
+					.append(",\"rps\":").append(String.format(Locale.ROOT, "%.1f", latencias.length / segundos))
+					.append(",\"errores\":").append(errores)
+					.append(",\"p50Ms\":").append(p50)
+					.append(",\"p95Ms\":").append(p95)
+					.append(",\"p99Ms\":").append(p99)
+					.append(",\"maxMs\":").append(max)
+					.append(",\"presupuestoP99Ms\":").append(presupuesto)
+					.append('}');
+		}
+		json.append("}}");
+		Files.createDirectories(RESULTADO.toAbsolutePath().getParent());
+		Files.writeString(RESULTADO, json);
+
+		double tasaErrores = totalRequests == 0 ? 0 : (double) totalErrores / totalRequests;
+		log.info("total: {} requests ({} req/s), {}% errores -> {}", totalRequests,
+				String.format(Locale.ROOT, "%.1f", totalRequests / segundos),
+				String.format(Locale.ROOT, "%.2f", tasaErrores * 100), RESULTADO);
+		if (tasaErrores > MAX_ERRORES) {
+			fallas.add(String.format("errores %.2f%% > %.2f%%", tasaErrores * 100, MAX_ERRORES * 100));
+		}
+		return fallas;
+	}
+
+	private static long percentil(long[] ordenadas, double p) {
+		return ordenadas[Math.min(ordenadas.length - 1, (int) (ordenadas.length * p))] / 1_000_000;
+	}
+}
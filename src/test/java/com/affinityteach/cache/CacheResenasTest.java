@@ -0,0 +1,70 @@
+package com.affinityteach.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.model.entity.ResenaEntity;
+import com.affinityteach.repository.InMemoryDocenteRepository;
+import com.affinityteach.repository.ResenaNueva;
+
+class CacheResenasTest {
+
+	@Test
+	void laPaginaSeReusaHastaQueCambiaLaVersionDelDocente() {
+		InMemoryDocenteRepository repository = new InMemoryDocenteRepository(0, 0);
+		repository.save(new DocenteEntity("d1", "Ana", 0.0, 0, null, null));
+		repository.agregarResenas(List.of(new ResenaNueva("d1", resena("Juan"))));
+		DocenteCache docenteCache = new DocenteCache(repository);
+		docenteCache.reemplazarTodo(repository.findAll());
+		CacheResenas cache = new CacheResenas(repository, docenteCache, 1 << 20);
+
+		assertEquals(1, cache.obtener("d1", null, 10).join().resenas().size());
+		assertEquals(1, cache.obtener("d1", null, 10).join().resenas().size());
+		assertEquals(1, cache.getEstadisticas().hitCount());
+
+		// Reseña nueva: el docente cambia de version y la pagina se vuelve a leer
+		repository.agregarResenas(List.of(new ResenaNueva("d1", resena("Eva"))));
+		docenteCache.actualizarDocenteIndividual("d1");
+		assertEquals(2, cache.obtener("d1", null, 10).join().resenas().size());
+		assertTrue(cache.getBytesEstimados() > 0);
+	}
+
+	@Test
+	void noPasaDelTopeDeMemoria() {
+		InMemoryDocenteRepository repository = new InMemoryDocenteRepository(0, 0);
+		List<DocenteEntity> docentes = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			DocenteEntity docente = new DocenteEntity("d" + i, "Docente " + i, 0.0, 0, null, null);
+			repository.save(docente);
+			docentes.add(docente);
+			List<ResenaNueva> resenas = new ArrayList<>();
+			for (int j = 0; j < 20; j++) {
+				resenas.add(new ResenaNueva(docente.getId(), resena("Estudiante " + j)));
+			}
+			repository.agregarResenas(resenas);
+		}
+		DocenteCache docenteCache = new DocenteCache(repository);
+		docenteCache.reemplazarTodo(docentes);
+		long tope = 64 * 1024;
+		CacheResenas cache = new CacheResenas(repository, docenteCache, tope);
+
+		for (int vuelta = 0; vuelta < 3; vuelta++) {
+			for (DocenteEntity docente : docentes) {
+				cache.obtener(docente.getId(), null, 20).join();
+			}
+		}
+		cache.limpiar();
+		assertTrue(cache.getBytesEstimados() <= tope, "ocupa " + cache.getBytesEstimados());
+		assertTrue(cache.getEstadisticas().evictionCount() > 0);
+	}
+
+	private static ResenaEntity resena(String estudiante) {
+		return new ResenaEntity(estudiante, "Explica muy bien los temas de la materia", 5, null, null);
+	}
+}
@@ -0,0 +1,81 @@
+package com.affinityteach.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.CambioDocente;
+import com.affinityteach.repository.DocenteChangeFeed;
+
+class DocenteCacheSyncTest {
+
+	private DocenteCache cache;
+	private FakeChangeFeed feed;
+	private DocenteCacheSync sync;
+
+	@BeforeEach
+	void setUp() {
+		cache = new DocenteCache(null);
+		feed = new FakeChangeFeed();
+		sync = new DocenteCacheSync(cache, feed);
+		sync.iniciar();
+	}
+
+	@Test
+	void primeraFotoReemplazaElCacheYDesactivaElTtl() {
+		feed.oyente.alCargar(List.of(docente("2", "Zoe"), docente("1", "Ana")));
+
+		assertTrue(cache.isSincronizadoEnVivo());
+		assertEquals(List.of("Ana", "Zoe"), nombres());
+	}
+
+	@Test
+	void aplicaAltasModificacionesYBajas() {
+		feed.oyente.alCargar(List.of(docente("1", "Ana"), docente("2", "Bruno"), docente("3", "Carla")));
+
+		feed.oyente.alCambiar(List.of(
+				CambioDocente.agregado(docente("4", "Abel")),
+				CambioDocente.modificado(docente("2", "Zulma")),
+				CambioDocente.eliminado("3")));
+
+		assertEquals(List.of("Abel", "Ana", "Zulma"), nombres());
+		assertEquals("Zulma", cache.getDocenteById("2").orElseThrow().getNombre());
+		assertFalse(cache.getDocenteById("3").isPresent());
+	}
+
+	@Test
+	void fallaDelListenerVuelveAlModoTtl() {
+		feed.oyente.alCargar(List.of(docente("1", "Ana")));
+
+		feed.oyente.alFallar(new IllegalStateException("sin conexion"));
+
+		assertFalse(cache.isSincronizadoEnVivo());
+		sync.detener();
+		assertTrue(feed.cancelada);
+	}
+
+	private List<String> nombres() {
+		return cache.getDocentes().stream().map(DocenteEntity::getNombre).toList();
+	}
+
+	private static DocenteEntity docente(String id, String nombre) {
+		return new DocenteEntity(id, nombre, 0.0, 0, null, null);
+	}
+
+	private static class FakeChangeFeed implements DocenteChangeFeed {
+		Oyente oyente;
+		boolean cancelada;
+
+		@Override
+		public Suscripcion suscribir(Oyente oyente) {
+			this.oyente = oyente;
+			return () -> cancelada = true;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.affinityteach.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.InMemoryDocenteRepository;
+
+class DocenteCacheTest {
+
+	@Test
+	void paginaPorCursorSinSaltearNiRepetirAunqueCambieElContenido() {
+		DocenteCache cache = new DocenteCache(null);
+		cache.reemplazarTodo(List.of(docente("1", "Ana"), docente("2", "Bruno"), docente("3", "Carla"),
+				docente("4", "Dario"), docente("5", null)));
+
+		PaginaDocentes primera = cache.getPagina(null, 2);
+		assertEquals(List.of("1", "2"), ids(primera));
+
+		// Un alta antes del cursor no corre la pagina siguiente
+		cache.actualizarDocenteIndividualConDatos("0", docente("0", "Aaron"));
+		PaginaDocentes segunda = cache.getPagina(CursorDocente.decodificar(primera.siguienteCursor()), 2);
+		assertEquals(List.of("3", "4"), ids(segunda));
+
+		// El docente sin nombre va al final y es la ultima pagina
+		PaginaDocentes tercera = cache.getPagina(CursorDocente.decodificar(segunda.siguienteCursor()), 2);
+		assertEquals(List.of("5"), ids(tercera));
+		assertNull(tercera.siguienteCursor());
+	}
+
+	@Test
+	void versionGlobalYPorDocenteCambianSoloConLoQueCorresponde() {
+		DocenteCache cache = new DocenteCache(null);
+		cache.reemplazarTodo(List.of(docente("1", "Ana"), docente("2", "Bruno")));
+		VersionCache global = cache.getVersion();
+		VersionCache ana = cache.getVersion("1").orElseThrow();
+
+		cache.actualizarDocenteIndividualConDatos("2", docente("2", "Bruno Diaz"));
+		assertNotEquals(global.etag(), cache.getVersion().etag());
+		assertEquals(ana, cache.getVersion("1").orElseThrow());
+
+		// Likes: cambia el docente, no el listado
+		VersionCache antesDeLikes = cache.getVersion();
+		cache.marcarModificados(List.of("1", "no-existe"));
+		assertEquals(antesDeLikes, cache.getVersion());
+		assertNotEquals(ana, cache.getVersion("1").orElseThrow());
+		assertTrue(cache.getVersion("no-existe").isEmpty());
+	}
+
+	@Test
+	void laRecargaNoFrenaLecturasNiEscriturasYConservaLoEscritoMientrasTanto() throws Exception {
+		RepositorioLento repositorio = new RepositorioLento();
+		DocenteCache cache = new DocenteCache(repositorio);
+		cache.reemplazarTodo(List.of(docente("1", "Ana"), docente("2", "Bruno")));
+		repositorio.guardarTodos(List.of(docente("1", "Ana Maria"), docente("2", "Bruno")));
+
+		CompletableFuture<Void> recarga = CompletableFuture.runAsync(cache::refreshCache);
+		assertTrue(repositorio.leyendo.await(5, TimeUnit.SECONDS));
+
+		// Mientras Firestore responde se sigue sirviendo la foto anterior
+		assertEquals(List.of("Ana", "Bruno"), nombres(cache));
+		cache.actualizarDocenteIndividualConDatos("2", docente("2", "Bruno Diaz"));
+
+		repositorio.liberar.countDown();
+		recarga.get(5, TimeUnit.SECONDS);
+		assertEquals(List.of("Ana Maria", "Bruno Diaz"), nombres(cache));
+	}
+
+	@Test
+	void lecturasSimultaneasDelMismoIdCompartenUnaSolaConsulta() throws Exception {
+		RepositorioLento repositorio = new RepositorioLento();
+		repositorio.guardarTodos(List.of(docente("9", "Nora")));
+		DocenteCache cache = new DocenteCache(repositorio);
+
+		List<CompletableFuture<Optional<DocenteEntity>>> pedidos = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			pedidos.add(cache.buscarDocente("9"));
+		}
+		assertTrue(repositorio.leyendo.await(5, TimeUnit.SECONDS));
+		repositorio.liberar.countDown();
+
+		for (CompletableFuture<Optional<DocenteEntity>> pedido : pedidos) {
+			assertEquals("Nora", pedido.get(5, TimeUnit.SECONDS).orElseThrow().getNombre());
+		}
+		assertEquals(1, repositorio.lecturas.get());
+	}
+
+	// Las lecturas quedan frenadas hasta que el test las libera
+	private static class RepositorioLento extends InMemoryDocenteRepository {
+		final CountDownLatch leyendo = new CountDownLatch(1);
+		final CountDownLatch liberar = new CountDownLatch(1);
+		final AtomicInteger lecturas = new AtomicInteger();
+
+		RepositorioLento() {
+			super(0, 0);
+		}
+
+		@Override
+		public List<DocenteEntity> findAll() {
+			esperarLiberacion();
+			return super.findAll();
+		}
+
+		@Override
+		public Optional<DocenteEntity> findById(String id) {
+			esperarLiberacion();
+			return super.findById(id);
+		}
+
+		private void esperarLiberacion() {
+			lecturas.incrementAndGet();
+			leyendo.countDown();
+			try {
+				liberar.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static List<String> nombres(DocenteCache cache) {
+		return cache.getDocentes().stream().map(DocenteEntity::getNombre).toList();
+	}
+
+	private static List<String> ids(PaginaDocentes pagina) {
+		return pagina.docentes().stream().map(DocenteEntity::getId).toList();
+	}
+
+	private static DocenteEntity docente(String id, String nombre) {
+		return new DocenteEntity(id, nombre, 0.0, 0, null, null);
+	}
+}
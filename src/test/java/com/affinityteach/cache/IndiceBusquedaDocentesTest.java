@@ -0,0 +1,66 @@
+package com.affinityteach.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.CambioDocente;
+
+class IndiceBusquedaDocentesTest {
+
+	private DocenteCache cache;
+	private IndiceBusquedaDocentes indice;
+
+	@BeforeEach
+	void setUp() {
+		cache = new DocenteCache(null);
+		cache.reemplazarTodo(List.of(
+				docente("1", "José Pérez", 4.0, "Álgebra"),
+				docente("2", "Ana Josefina Ruiz", 3.0, "Física"),
+				docente("3", "Martín Gómez", 5.0, "Algoritmos"),
+				docente("4", "Perla Sosa", 2.0, "Historia")));
+		indice = new IndiceBusquedaDocentes(cache);
+	}
+
+	@Test
+	void ignoraMayusculasYAcentosYBuscaSubcadenas() {
+		assertEquals(List.of("1", "2"), ids(indice.buscar("JOSE", 10)));
+		assertEquals(List.of("1"), ids(indice.buscar("erez", 10)));
+		// Mismo tipo de coincidencia (materia): desempata el puntaje
+		assertEquals(List.of("3", "1"), ids(indice.buscar("alg", 10)));
+		assertEquals(List.of("3"), ids(indice.buscar("mar go", 10)));
+		assertTrue(indice.buscar("xyz", 10).isEmpty());
+	}
+
+	@Test
+	void ordenaPorRelevanciaYRespetaElLimite() {
+		// "Perla" empieza con "pe"; en "José Pérez" es la segunda palabra
+		assertEquals(List.of("4", "1"), ids(indice.buscar("pe", 10)));
+		assertEquals(List.of("4"), ids(indice.buscar("pe", 1)));
+	}
+
+	@Test
+	void sigueLosCambiosDelCache() {
+		cache.actualizarDocenteIndividualConDatos("4", docente("4", "Perla Jiménez", 2.0, "Historia"));
+		cache.aplicarCambios(List.of(CambioDocente.eliminado("1"),
+				CambioDocente.agregado(docente("5", "Julia Jimenez", 4.5, "Química"))));
+
+		assertEquals(List.of("5", "4"), ids(indice.buscar("jimenez", 10)));
+		assertTrue(indice.buscar("sosa", 10).isEmpty());
+		assertEquals(List.of("2"), ids(indice.buscar("jose", 10)));
+		assertEquals(4, indice.getCantidadIndexados());
+	}
+
+	private static List<String> ids(List<DocenteEntity> docentes) {
+		return docentes.stream().map(DocenteEntity::getId).toList();
+	}
+
+	private static DocenteEntity docente(String id, String nombre, double puntaje, String materia) {
+		return new DocenteEntity(id, nombre, puntaje, 0, List.of(materia), null);
+	}
+}
@@ -0,0 +1,103 @@
+package com.affinityteach.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.affinityteach.cache.IndiceMaterias.ResultadoFiltro;
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.CambioDocente;
+
+class IndiceMateriasTest {
+
+	private DocenteCache cache;
+	private IndiceMaterias indice;
+
+	@BeforeEach
+	void setUp() {
+		cache = new DocenteCache(null);
+		cache.reemplazarTodo(List.of(
+				docente("1", "Ana", "Álgebra", "Física"),
+				docente("2", "Bruno", "Algebra"),
+				docente("3", "Carla", "Física", "Química"),
+				docente("4", "Diego", "Historia")));
+		indice = new IndiceMaterias(cache);
+	}
+
+	@Test
+	void filtraConAndYOrYCuentaPorMateria() {
+		ResultadoFiltro todas = indice.filtrar(List.of("algebra", "FISICA"), true, null, 10);
+		assertEquals(List.of("1"), ids(todas));
+		assertEquals(Map.of("Álgebra", 1, "Física", 1), todas.facetas());
+
+		ResultadoFiltro alguna = indice.filtrar(List.of("algebra", "fisica", "inexistente"), false, null, 10);
+		assertEquals(List.of("1", "2", "3"), ids(alguna));
+		// Empate en 2: alfabetico sin acentos
+		assertEquals(List.of("Álgebra", "Física", "Química"), List.copyOf(alguna.facetas().keySet()));
+		assertEquals(2, alguna.facetas().get("Física"));
+
+		// Sin filtro: todos, con las facetas completas
+		assertEquals(4, indice.filtrar(null, true, null, 10).total());
+		assertEquals(0, indice.filtrar(List.of("algebra", "inexistente"), true, null, 10).total());
+	}
+
+	@Test
+	void paginaConCursor() {
+		ResultadoFiltro primera = indice.filtrar(List.of(), true, null, 3);
+		assertEquals(List.of("1", "2", "3"), ids(primera));
+		assertEquals(4, primera.total());
+
+		ResultadoFiltro segunda = indice.filtrar(List.of(), true, primera.siguienteCursor(), 3);
+		assertEquals(List.of("4"), ids(segunda));
+		assertNull(segunda.siguienteCursor());
+
+		// Una recarga renumera los ids internos: el cursor viejo se rechaza
+		cache.reemplazarTodo(List.of(docente("9", "Zoe", "Historia")));
+		assertThrows(IllegalArgumentException.class,
+				() -> indice.filtrar(List.of(), true, primera.siguienteCursor(), 3));
+	}
+
+	@Test
+	void sigueLosCambiosDelCache() {
+		cache.actualizarDocenteIndividualConDatos("2", docente("2", "Bruno", "Química"));
+		cache.aplicarCambios(List.of(CambioDocente.eliminado("1"),
+				CambioDocente.agregado(docente("5", "Elena", "Algebra", "Historia"))));
+
+		assertEquals(List.of("5"), ids(indice.filtrar(List.of("álgebra"), true, null, 10)));
+		assertEquals(List.of("2", "3"), ids(indice.filtrar(List.of("quimica"), true, null, 10)));
+		assertEquals(Map.of("Historia", 2, "Química", 2, "Física", 1, "Algebra", 1),
+				indice.filtrar(null, true, null, 10).facetas());
+		assertEquals(4, indice.getCantidadMaterias());
+	}
+
+	@Test
+	void compactaLosIdsDeLosEliminados() {
+		ResultadoFiltro primera = indice.filtrar(List.of(), true, null, 2);
+		for (int i = 0; i < 5000; i++) {
+			cache.aplicarCambios(List.of(CambioDocente.agregado(docente("x" + i, "Temporal", "Historia"))));
+			cache.aplicarCambios(List.of(CambioDocente.eliminado("x" + i)));
+		}
+
+		// Sin compactar serian mas de 5000 slots
+		assertTrue(indice.getCapacidad() < 4096);
+		assertEquals(List.of("1", "2", "3", "4"), ids(indice.filtrar(null, true, null, 10)));
+		assertEquals(Map.of("Historia", 1), indice.filtrar(List.of("historia"), true, null, 10).facetas());
+		assertThrows(IllegalArgumentException.class,
+				() -> indice.filtrar(List.of(), true, primera.siguienteCursor(), 2));
+	}
+
+	private static List<String> ids(ResultadoFiltro resultado) {
+		return resultado.docentes().stream().map(DocenteEntity::getId).toList();
+	}
+
+	private static DocenteEntity docente(String id, String nombre, String... materias) {
+		return new DocenteEntity(id, nombre, 4.0, 0, List.of(materias), null);
+	}
+}
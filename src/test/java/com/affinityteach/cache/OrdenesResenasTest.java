@@ -0,0 +1,118 @@
+package com.affinityteach.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.model.entity.ResenaEntity;
+import com.affinityteach.repository.CursorResena;
+import com.affinityteach.repository.InMemoryDocenteRepository;
+import com.affinityteach.repository.PaginaResenas;
+import com.affinityteach.repository.ResenaNueva;
+import com.google.cloud.Timestamp;
+
+class OrdenesResenasTest {
+
+	private RepositorioContado repository;
+	private OrdenesResenas ordenes;
+
+	@BeforeEach
+	void setUp() {
+		repository = new RepositorioContado();
+		repository.save(new DocenteEntity("d1", "Ana", 0.0, 0, null, null));
+		// r1 la mas vieja ... r4 la mas nueva
+		repository.agregarResenas(List.of(
+				new ResenaNueva("d1", resena("r1", 3, 5, 1)),
+				new ResenaNueva("d1", resena("r2", 5, 0, 2)),
+				new ResenaNueva("d1", resena("r3", 1, 5, 3)),
+				new ResenaNueva("d1", resena("r4", 5, 2, 4))));
+		ordenes = new OrdenesResenas(repository, 1 << 20);
+	}
+
+	@Test
+	void paginaEnCadaOrdenConCursor() {
+		assertEquals(List.of("r4", "r3", "r2", "r1"), ids(todas(OrdenResenas.RECIENTES)));
+		// Empate en likes o estrellas: la mas nueva primero
+		assertEquals(List.of("r3", "r1", "r4", "r2"), ids(todas(OrdenResenas.LIKES)));
+		assertEquals(List.of("r4", "r2", "r1", "r3"), ids(todas(OrdenResenas.MAS_ESTRELLAS)));
+		assertEquals(List.of("r3", "r1", "r4", "r2"), ids(todas(OrdenResenas.MENOS_ESTRELLAS)));
+		assertEquals(1, repository.lecturas.get());
+
+		// El cursor de un orden no sirve para otro
+		String cursor = ordenes.pagina("d1", 4, OrdenResenas.LIKES, null, 1).join().siguienteCursor();
+		assertThrows(IllegalArgumentException.class,
+				() -> ordenes.pagina("d1", 4, OrdenResenas.RECIENTES, cursor, 1));
+	}
+
+	@Test
+	void resenasYLikesNuevosSinReleer() {
+		todas(OrdenResenas.LIKES);
+
+		// Como el servicio: primero se escribe, despues se avisa
+		ResenaEntity r5 = resena("r5", 4, 0, 5);
+		repository.agregarResenas(List.of(new ResenaNueva("d1", r5)));
+		ordenes.agregar("d1", r5);
+		ordenes.actualizarLikes("d1", resena("r2", 5, 9, 2));
+		// Una vista atrasada (menos likes) no pisa a la nueva
+		ordenes.actualizarLikes("d1", resena("r2", 5, 7, 2));
+
+		assertEquals(List.of("r2", "r3", "r1", "r4", "r5"), ids(todas(OrdenResenas.LIKES)));
+		assertEquals(List.of("r5", "r4", "r3", "r2", "r1"), ids(todas(OrdenResenas.RECIENTES)));
+		assertEquals(9, todas(OrdenResenas.RECIENTES).get(3).getLikes());
+		assertEquals(1, repository.lecturas.get());
+
+		// Otra instancia escribio una reseña: la cantidad no coincide y se relee
+		repository.agregarResenas(List.of(new ResenaNueva("d1", resena("r6", 2, 0, 6)),
+				new ResenaNueva("d1", resena("r7", 2, 0, 7))));
+		assertEquals(7, ordenes.pagina("d1", 7, OrdenResenas.RECIENTES, null, 10).join().resenas().size());
+		assertEquals(2, repository.lecturas.get());
+	}
+
+	private List<ResenaEntity> todas(OrdenResenas orden) {
+		List<ResenaEntity> resenas = new ArrayList<>();
+		String cursor = null;
+		do {
+			PaginaResenas pagina = ordenes.pagina("d1", null, orden, cursor, 2).join();
+			resenas.addAll(pagina.resenas());
+			cursor = pagina.siguienteCursor();
+		} while (cursor != null);
+		return resenas;
+	}
+
+	private static List<String> ids(List<ResenaEntity> resenas) {
+		return resenas.stream().map(ResenaEntity::getId).toList();
+	}
+
+	private static ResenaEntity resena(String id, int estrellas, int likes, long segundos) {
+		ResenaEntity resena = new ResenaEntity("Estudiante", "Comentario", estrellas, null, null);
+		resena.setId(id);
+		resena.setLikes(likes);
+		resena.setFecha(Timestamp.ofTimeSecondsAndNanos(segundos, 0));
+		return resena;
+	}
+
+	// Cuenta las cargas completas (primera pagina de cada lectura)
+	private static class RepositorioContado extends InMemoryDocenteRepository {
+		final AtomicInteger lecturas = new AtomicInteger();
+
+		RepositorioContado() {
+			super(0, 0);
+		}
+
+		@Override
+		public PaginaResenas findResenas(String docenteId, CursorResena cursor, int limite) {
+			if (cursor == null) {
+				lecturas.incrementAndGet();
+			}
+			return super.findResenas(docenteId, cursor, limite);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.affinityteach.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.repository.CambioDocente;
+
+class RankingDocentesTest {
+
+	private DocenteCache cache;
+	private RankingDocentes ranking;
+
+	@BeforeEach
+	void setUp() {
+		cache = new DocenteCache(null);
+		cache.reemplazarTodo(List.of(
+				docente("1", 4.0, 10, "Álgebra"),
+				docente("2", 4.0, 30, "Física", "Algebra"),
+				docente("3", 5.0, 2, "Historia"),
+				docente("4", null, 0, "Álgebra")));
+		ranking = new RankingDocentes(cache);
+	}
+
+	@Test
+	void ordenaPorPuntajeYCantidadDeResenasConFiltroDeMateria() {
+		assertEquals(List.of("3", "2", "1", "4"), ids(ranking.top(null, 10)));
+		assertEquals(List.of("3", "2"), ids(ranking.top("", 2)));
+		// La materia se compara sin acentos ni mayusculas
+		assertEquals(List.of("2", "1", "4"), ids(ranking.top("ALGEBRA", 10)));
+		assertTrue(ranking.top("Quimica", 10).isEmpty());
+	}
+
+	@Test
+	void sigueLosCambiosDelCache() {
+		cache.actualizarDocenteIndividualConDatos("1", docente("1", 4.8, 11, "Álgebra"));
+		cache.aplicarCambios(List.of(CambioDocente.eliminado("3"),
+				CambioDocente.agregado(docente("5", 4.5, 1, "Química"))));
+
+		assertEquals(List.of("1", "5", "2", "4"), ids(ranking.top(null, 10)));
+		assertEquals(List.of("5"), ids(ranking.top("quimica", 10)));
+		assertTrue(ranking.top("historia", 10).isEmpty());
+		assertEquals(4, ranking.getCantidadRankeados());
+
+		// Misma clave (puntaje y reseñas) con otros datos: devuelve la version nueva
+		DocenteEntity renombrado = docente("2", 4.0, 30, "Física");
+		renombrado.setNombre("Otro nombre");
+		cache.actualizarDocenteIndividualConDatos("2", renombrado);
+		assertSame(renombrado, ranking.top(null, 10).get(2));
+		assertEquals(List.of("1", "4"), ids(ranking.top("algebra", 10)));
+	}
+
+	private static List<String> ids(List<DocenteEntity> docentes) {
+		return docentes.stream().map(DocenteEntity::getId).toList();
+	}
+
+	private static DocenteEntity docente(String id, Double puntaje, int cantResenas, String... materias) {
+		DocenteEntity docente = new DocenteEntity();
+		docente.setId(id);
+		docente.setNombre("Docente " + id);
+		docente.setPuntaje(puntaje);
+		docente.setCantResenas(cantResenas);
+		docente.setMaterias(List.of(materias));
+		return docente;
+	}
+}
@@ -0,0 +1,72 @@
+package com.affinityteach.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.affinityteach.cache.DocenteCache;
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.model.entity.ResenaEntity;
+import com.affinityteach.repository.InMemoryDocenteRepository;
+import com.affinityteach.repository.ResenaNueva;
+
+class ContadorLikesTest {
+
+	private InMemoryDocenteRepository repository;
+	private ContadorLikes contador;
+
+	@BeforeEach
+	void setUp() {
+		repository = new InMemoryDocenteRepository(0, 0);
+		repository.save(new DocenteEntity("d1", "Ana", 0.0, 0, null, null));
+		ResenaEntity resena = new ResenaEntity("Juan", "Muy bueno", 5, null, null);
+		resena.setId("r1");
+		repository.agregarResenas(List.of(new ResenaNueva("d1", resena)));
+		contador = new ContadorLikes(repository, new DocenteCache(repository));
+	}
+
+	@Test
+	void resenaInexistenteNoSeRegistra() {
+		assertTrue(contador.registrar("d1", "no-existe").isEmpty());
+		assertTrue(contador.registrar("no-existe", "r1").isEmpty());
+	}
+
+	@Test
+	void noSePierdenLikesConFlushConcurrente() throws Exception {
+		int hilos = 8;
+		int likesPorHilo = 5_000;
+		ExecutorService executor = Executors.newFixedThreadPool(hilos + 1);
+		List<Future<?>> tareas = new ArrayList<>();
+		for (int i = 0; i < hilos; i++) {
+			tareas.add(executor.submit(() -> {
+				for (int j = 0; j < likesPorHilo; j++) {
+					contador.registrar("d1", "r1");
+				}
+			}));
+		}
+		Future<?> flusher = executor.submit(() -> {
+			while (!Thread.currentThread().isInterrupted()) {
+				contador.flush();
+			}
+		});
+		for (Future<?> tarea : tareas) {
+			tarea.get(30, TimeUnit.SECONDS);
+		}
+		flusher.cancel(true);
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+		contador.flush();
+
+		assertEquals(0, contador.getPendientes("d1", "r1"));
+		assertEquals(hilos * likesPorHilo, repository.findResena("d1", "r1").orElseThrow().getLikes());
+	}
+}
@@ -0,0 +1,123 @@
+package com.affinityteach.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.affinityteach.model.entity.DocenteEntity;
+import com.affinityteach.model.entity.ResenaEntity;
+import com.affinityteach.repository.InMemoryDocenteRepository;
+import com.affinityteach.repository.ResenaExistenteException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EscrituraDiferidaTest {
+
+	private InMemoryDocenteRepository repository;
+	private SimpleMeterRegistry registry;
+	private EscrituraDiferida escritura;
+
+	@BeforeEach
+	void setUp() {
+		repository = new InMemoryDocenteRepository(0, 0);
+		repository.save(new DocenteEntity("d1", "Ana", 0.0, 0, null, null));
+		repository.save(new DocenteEntity("d2", "Beto", 0.0, 0, null, null));
+		registry = new SimpleMeterRegistry();
+		escritura = new EscrituraDiferida(repository, registry,
+				true, 20, 200, 1000, 5000);
+		escritura.iniciar();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		escritura.detener();
+	}
+
+	@Test
+	void agrupaResenasConcurrentesEnLotesConAgregadosCorrectos() throws Exception {
+		int hilos = 8;
+		int resenasPorHilo = 50;
+		ExecutorService executor = Executors.newFixedThreadPool(hilos);
+		List<Future<?>> tareas = new ArrayList<>();
+		for (int i = 0; i < hilos; i++) {
+			int hilo = i;
+			tareas.add(executor.submit(() -> {
+				for (int j = 0; j < resenasPorHilo; j++) {
+					ResenaEntity resena = new ResenaEntity("Est", "Comentario", j % 5 + 1, null, null);
+					resena.setId("r-" + hilo + "-" + j);
+					escritura.escribirAsync(hilo % 2 == 0 ? "d1" : "d2", resena).join();
+				}
+			}));
+		}
+		for (Future<?> tarea : tareas) {
+			tarea.get();
+		}
+		executor.shutdown();
+
+		for (String id : List.of("d1", "d2")) {
+			DocenteEntity docente = repository.findById(id).orElseThrow();
+			assertEquals(200, docente.getCantResenas());
+			assertEquals(600L, docente.getSumaEstrellas());
+			assertEquals(3.0, docente.getPuntaje());
+		}
+		long lotes = registry.get("affinityteach.escritura.lote").summary().count();
+		assertTrue(lotes < hilos * resenasPorHilo, "se esperaban lotes de mas de una reseña: " + lotes);
+	}
+
+	@Test
+	void docenteBorradoNoHaceFallarAlRestoDelLote() throws Exception {
+		ResenaEntity valida = new ResenaEntity("Est", "Comentario", 5, null, null);
+		valida.setId("r-valida");
+		ResenaEntity huerfana = new ResenaEntity("Est", "Comentario", 1, null, null);
+		huerfana.setId("r-huerfana");
+
+		CompletableFuture<Void> escrita = escritura.escribirAsync("d1", valida);
+		CompletableFuture<Void> fallida = escritura.escribirAsync("borrado", huerfana);
+
+		escrita.get();
+		assertThrows(ExecutionException.class, fallida::get);
+		assertEquals(1, repository.findById("d1").orElseThrow().getCantResenas());
+		assertTrue(repository.findResena("borrado", "r-huerfana").isEmpty());
+	}
+
+	@Test
+	void resenaConIdRepetidoNoSeSumaDosVeces() throws Exception {
+		ResenaEntity primera = new ResenaEntity("Est", "Comentario", 4, null, "est@uni.edu");
+		primera.setId("r-idempotente");
+		ResenaEntity repetida = new ResenaEntity("Est", "Otro comentario", 2, null, "est@uni.edu");
+		repetida.setId("r-idempotente");
+
+		escritura.escribirAsync("d1", primera).get();
+		ExecutionException error = assertThrows(ExecutionException.class,
+				() -> escritura.escribirAsync("d1", repetida).get());
+
+		assertInstanceOf(ResenaExistenteException.class, error.getCause());
+		DocenteEntity docente = repository.findById("d1").orElseThrow();
+		assertEquals(1, docente.getCantResenas());
+		assertEquals(4L, docente.getSumaEstrellas());
+		assertEquals("Comentario", repository.findResena("d1", "r-idempotente").orElseThrow().getComentario());
+	}
+
+	@Test
+	void detenidaRechazaConColaEscrituraLlena() throws InterruptedException {
+		escritura.detener();
+		ResenaEntity resena = new ResenaEntity("Est", "Comentario", 4, null, null);
+		resena.setId("r-1");
+		ExecutionException error = assertThrows(ExecutionException.class,
+				() -> escritura.escribirAsync("d1", resena).get());
+		assertInstanceOf(ColaEscrituraLlenaException.class, error.getCause());
+	}
+}
@@ -0,0 +1,73 @@
+package com.affinityteach.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.affinityteach.model.entity.DocenteEntity;
+
+class RegistroIdempotenciaTest {
+
+	private final RegistroIdempotencia registro = new RegistroIdempotencia(1000);
+	private final AtomicInteger escrituras = new AtomicInteger();
+
+	@Test
+	void reintentosYDuplicadosRecibenElPrimerResultadoSinEscribir() {
+		// La primera sigue en vuelo cuando llegan las demas
+		CompletableFuture<Optional<DocenteEntity>> enVuelo = new CompletableFuture<>();
+		CompletableFuture<Optional<DocenteEntity>> primera = registro.unaVez("d1", "k1", null, () -> {
+			escrituras.incrementAndGet();
+			return enVuelo;
+		});
+		CompletableFuture<Optional<DocenteEntity>> reintento = registro.unaVez("d1", "k1", null, this::escribir);
+		DocenteEntity docente = new DocenteEntity("d1", "Ana", 5.0, 1, null, null);
+		enVuelo.complete(Optional.of(docente));
+
+		assertSame(docente, primera.join().get());
+		assertSame(docente, reintento.join().get());
+		// Misma clave en otro docente: es otra reseña
+		registro.unaVez("d2", "k1", null, this::escribir).join();
+		assertEquals(2, escrituras.get());
+
+		// Mismo email (sin importar mayusculas) con otra clave: duplicado
+		registro.unaVez("d1", "k2", "eva@uni.edu", this::escribir).join();
+		registro.unaVez("d1", "k3", " EVA@uni.edu ", this::escribir).join();
+		registro.unaVez("d1", "k2", null, this::escribir).join();
+		assertEquals(3, escrituras.get());
+	}
+
+	@Test
+	void unFalloNoSeRecuerda() {
+		CompletableFuture<Optional<DocenteEntity>> fallida = registro.unaVez("d1", "k1", null, () -> {
+			escrituras.incrementAndGet();
+			return CompletableFuture.failedFuture(new RuntimeException("Firestore no responde"));
+		});
+		assertThrows(CompletionException.class, fallida::join);
+
+		registro.unaVez("d1", "k1", null, this::escribir).join();
+		assertEquals(2, escrituras.get());
+	}
+
+	@Test
+	void elIdDeLaResenaSaleDelEmailODeLaClave() {
+		String id = RegistroIdempotencia.idResena("d1", "k1", "Eva@uni.edu");
+		assertEquals(id, RegistroIdempotencia.idResena("d1", "otra", "eva@uni.edu"));
+		assertNotEquals(id, RegistroIdempotencia.idResena("d2", "k1", "eva@uni.edu"));
+		assertEquals(RegistroIdempotencia.idResena("d1", "k1", null), RegistroIdempotencia.idResena("d1", "k1", ""));
+		assertNull(RegistroIdempotencia.idResena("d1", null, null));
+	}
+
+	private CompletableFuture<Optional<DocenteEntity>> escribir() {
+		escrituras.incrementAndGet();
+		return CompletableFuture.completedFuture(Optional.of(new DocenteEntity("d1", "Ana", 5.0, 1, null, null)));
+	}
+}